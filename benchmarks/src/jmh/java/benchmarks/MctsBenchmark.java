@@ -0,0 +1,55 @@
+package benchmarks;
+
+import mechanics.Game;
+import mechanics.MctsPlayer;
+import mechanics.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MctsBenchmark {
+
+    private static final int POSITIONS = 16;
+    private static final int PLAYOUTS = 2000;
+
+    @Param({"8", "20"})
+    public int size;
+
+    private Game[] games;
+    private MctsPlayer player;
+    private int next;
+
+    /**
+     * Build the midgame positions to search, and a single thread player stopped by its playout
+     * budget only.
+     */
+    @Setup
+    public void setUp() {
+        this.games = Positions.midgame(size, POSITIONS);
+        this.player = new MctsPlayer(Long.MAX_VALUE / 2000000L);
+        this.player.setPlayoutBudget(PLAYOUTS);
+    }
+
+    /**
+     * Grow a tree of PLAYOUTS playouts from the next position. Scores are per playout, so the gc
+     * profiler's gc.alloc.rate.norm is the bytes allocated per playout: the tree nodes it adds
+     * and a share of the per-search setup, since the random playouts themselves allocate nothing.
+     * @return the chosen move
+     */
+    @Benchmark
+    @OperationsPerInvocation(PLAYOUTS)
+    public Point search() {
+        return player.chooseMove(games[next++ & (POSITIONS - 1)]);
+    }
+}
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import mechanics.Game;
+import mechanics.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoveApplicationBenchmark {
+
+    private static final int POSITIONS = 64;
+
+    @Param({"4", "8", "20"})
+    public int size;
+
+    private Game[] games;
+    private Point[] clicks;
+    private int[] squares;
+    private int next;
+
+    /**
+     * Build the midgame positions to play moves on, and the block a user clicks in each.
+     */
+    @Setup
+    public void setUp() {
+        this.games = Positions.midgame(size, POSITIONS);
+        this.clicks = new Point[POSITIONS];
+        for (int k = 0; k < POSITIONS; k++) {
+            this.clicks[k] = games[k].getAvailableMoves().get(0);
+        }
+        this.squares = new int[size * size];
+    }
+
+    /**
+     * Play and take back every available move of the next position. Playing a move flips the
+     * coins, updates the score and hash, and finds the opponent's moves.
+     * @return the number of moves played
+     */
+    @Benchmark
+    public int makeUnmake() {
+        Game game = games[next++ & (POSITIONS - 1)];
+        int count = game.getLegalMoves(squares);
+        for (int k = 0; k < count; k++) {
+            game.makeMove(squares[k]);
+            game.unmakeMove();
+        }
+        return count;
+    }
+
+    /**
+     * Play a clicked move on the next position the way the UI does on its one game: check it's
+     * legal, play the point, and read the scores for the labels. The move is then taken back, as
+     * the UI's undo does, so the position can be played again.
+     * @return the score difference after the move
+     */
+    @Benchmark
+    public int clickAndUndo() {
+        int index = next++ & (POSITIONS - 1);
+        Game game = games[index];
+        Point move = clicks[index];
+        if (!game.isLegal(move.getX(), move.getY()) || !game.playMove(move)) {
+            throw new IllegalStateException("Clicked move " + move + " isn't legal");
+        }
+        int difference = game.getScore(Game.Player.PLAYER1) - game.getScore(Game.Player.PLAYER2);
+        game.unmakeMove();
+        return difference;
+    }
+}
@@ -0,0 +1,74 @@
+package benchmarks;
+
+import mechanics.Board;
+import mechanics.Game;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoveGenerationBenchmark {
+
+    private static final int POSITIONS = 64;
+
+    @Param({"4", "8", "20"})
+    public int size;
+
+    private Board[] boards;
+    private Board.Mark[] marks;
+    private int[] squares;
+    private int next;
+
+    /**
+     * Build the midgame positions to generate moves for.
+     */
+    @Setup
+    public void setUp() {
+        Game[] games = Positions.midgame(size, POSITIONS);
+        this.boards = new Board[POSITIONS];
+        this.marks = new Board.Mark[POSITIONS];
+        for (int k = 0; k < POSITIONS; k++) {
+            boards[k] = games[k].getBoard();
+            marks[k] = games[k].getPlayerMark(games[k].getCurrentTurn());
+        }
+        this.squares = new int[size * size];
+    }
+
+    /**
+     * Generate every legal move of the next position from scratch.
+     * @return the number of moves
+     */
+    @Benchmark
+    public int legalMoves() {
+        int k = next++ & (POSITIONS - 1);
+        return boards[k].getLegalMoves(marks[k], squares);
+    }
+
+    /**
+     * Check every block of the next position for being a legal move, one at a time.
+     * @return the number of moves
+     */
+    @Benchmark
+    public int isLegalMoveScan() {
+        int k = next++ & (POSITIONS - 1);
+        Board board = boards[k];
+        int count = 0;
+        for (int j = 0; j < size; j++) {
+            for (int i = 0; i < size; i++) {
+                if (board.isLegalMove(board.square(i, j), marks[k])) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
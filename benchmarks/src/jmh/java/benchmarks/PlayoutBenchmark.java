@@ -0,0 +1,65 @@
+package benchmarks;
+
+import mechanics.Game;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PlayoutBenchmark {
+
+    @Param({"4", "8", "20"})
+    public int size;
+
+    private Game game;
+    private int[] squares;
+    private long seed;
+
+    /**
+     * Start the game every playout begins from.
+     */
+    @Setup
+    public void setUp() {
+        this.game = Positions.start(size);
+        this.squares = new int[size * size];
+        this.seed = 0x2545f4914f6cdd1dL;
+    }
+
+    /**
+     * Play random moves from the start to the end of the game, then take them all back.
+     * @return the final difference of coins
+     */
+    @Benchmark
+    public int randomPlayout() {
+        while (!game.isGameOver()) {
+            int count = game.getLegalMoves(squares);
+            game.makeMove(squares[nextInt(count)]);
+        }
+        int difference = game.getScore(Game.Player.PLAYER1) - game.getScore(Game.Player.PLAYER2);
+        while (game.getHistorySize() > 0) {
+            game.unmakeMove();
+        }
+        return difference;
+    }
+
+    /**
+     * Returns a random number from 0 to bound, exclusive, from an xorshift generator.
+     * @param bound int
+     * @return int
+     */
+    private int nextInt(int bound) {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return (int) ((seed >>> 33) % bound);
+    }
+}
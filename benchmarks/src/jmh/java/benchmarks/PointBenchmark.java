@@ -0,0 +1,33 @@
+package benchmarks;
+
+import mechanics.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PointBenchmark {
+
+    private final Point origin = new Point(3, 4);
+
+    /**
+     * Step once in every direction from a point.
+     * @return the sum of the reached coordinates
+     */
+    @Benchmark
+    public int moveDirection() {
+        int sum = 0;
+        for (Point.Direction dir : Point.directions) {
+            Point point = origin.moveDirection(dir);
+            sum += point.getX() + point.getY();
+        }
+        return sum;
+    }
+}
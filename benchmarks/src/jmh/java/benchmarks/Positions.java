@@ -0,0 +1,53 @@
+package benchmarks;
+
+import mechanics.Game;
+
+import java.util.Random;
+
+final class Positions {
+
+    private static final long SEED = 20171218L;
+
+    /**
+     * Benchmark positions are built the same way on every run.
+     */
+    private Positions() {
+    }
+
+    /**
+     * Returns games of given size, each after a random number of random moves, up to about half
+     * the board. Finished games are skipped.
+     * @param size the board's width and height
+     * @param count number of games
+     * @return Game[]
+     */
+    static Game[] midgame(int size, int count) {
+        Random random = new Random(SEED + size);
+        Game[] games = new Game[count];
+        int[] moves = new int[size * size];
+        int found = 0;
+        while (found < count) {
+            Game game = start(size);
+            int plies = random.nextInt(size * size / 2);
+            for (int k = 0; k < plies && !game.isGameOver(); k++) {
+                game.makeMove(moves[random.nextInt(game.getLegalMoves(moves))]);
+            }
+            if (!game.isGameOver()) {
+                games[found++] = game;
+            }
+        }
+        return games;
+    }
+
+    /**
+     * Returns a started game of given size.
+     * @param size the board's width and height
+     * @return Game
+     */
+    static Game start(int size) {
+        Game game = new Game();
+        game.initialize(size, size, Game.Player.PLAYER1);
+        game.start();
+        return game;
+    }
+}
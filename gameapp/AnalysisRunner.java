@@ -0,0 +1,89 @@
+package gameapp;
+
+import javafx.application.Platform;
+import mechanics.AlphaBetaPlayer;
+import mechanics.Game;
+import mechanics.SearchInfo;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+public class AnalysisRunner {
+
+    private final AlphaBetaPlayer player;
+    private final ExecutorService executor;
+    private Future<?> running;
+    // The cancel token of the running analysis, a new one for each analysis, so a cancel can't
+    // be undone by the next analysis starting.
+    private AtomicBoolean cancelled;
+    // Counts the analyses asked for, so scores of a position that was left are never shown.
+    private int generation;
+
+    /**
+     * Creates a new runner analysing positions with given player on a background thread of its
+     * own. The player keeps its transposition table from one analysis to the next. All its methods
+     * are called on the FX application thread.
+     * @param player AlphaBetaPlayer, used by this runner only
+     */
+    public AnalysisRunner(AlphaBetaPlayer player) {
+        this.player = player;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "analysis");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        this.running = null;
+        this.generation = 0;
+    }
+
+    /**
+     * Start scoring every available move of given game, cancelling any analysis still running.
+     * The game is copied first, so it may be changed right away.
+     * @param game a started Game
+     * @param onUpdate given the latest scores on the FX application thread. Updates coming faster
+     *                 than the FX thread takes them are merged, so only the latest is given.
+     */
+    public void start(Game game, Consumer<List<SearchInfo>> onUpdate) {
+        cancel();
+        Game position = new Game(game);
+        int ticket = this.generation;
+        AtomicReference<List<SearchInfo>> pending = new AtomicReference<>();
+        AtomicBoolean token = new AtomicBoolean();
+        this.cancelled = token;
+        this.running = executor.submit(() -> {
+            try {
+                player.analyze(position, token, scores -> {
+                    // Only the first update since the FX thread last took one asks it to run.
+                    if (pending.getAndSet(scores) == null) {
+                        Platform.runLater(() -> {
+                            List<SearchInfo> latest = pending.getAndSet(null);
+                            if (ticket == this.generation && latest != null) {
+                                onUpdate.accept(latest);
+                            }
+                        });
+                    }
+                });
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Stop the running analysis, if any, and drop the scores it didn't deliver yet.
+     */
+    public void cancel() {
+        this.generation++;
+        if (running != null) {
+            cancelled.set(true);
+            running.cancel(false);
+            this.running = null;
+        }
+    }
+}
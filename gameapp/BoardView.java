@@ -0,0 +1,86 @@
+package gameapp;
+
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import mechanics.AlphaBetaPlayer;
+import mechanics.Game;
+import mechanics.Point;
+import mechanics.SearchInfo;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface BoardView {
+
+    /**
+     * Returns the node showing the board, to be placed in the scene and sized by its preferred
+     * width and height.
+     * @return Region
+     */
+    Region getRegion();
+
+    /**
+     * Set's the game reference to given Game object.
+     * @param game Game
+     */
+    void setGame(Game game);
+
+    /**
+     * Set what to do when the user picks a block: it's given the picked point, legal or not.
+     * @param onPlay Consumer
+     */
+    void setOnPlay(Consumer<Point> onPlay);
+
+    /**
+     * Draw the whole board while using given colors for players' coins.
+     * @param player1Color Color
+     * @param player2Color Color
+     */
+    void draw(Color player1Color, Color player2Color);
+
+    /**
+     * Show the game's current position after a move was played or taken back.
+     */
+    void refresh();
+
+    /**
+     * Fit the board to the region's preferred size.
+     */
+    void resize();
+
+    /**
+     * Show the analysed score of every given move over its block, replacing any scores shown
+     * before. The best score stands out.
+     * @param scores SearchInfo of every analysed move, or an empty list to hide the scores
+     */
+    void showScores(List<SearchInfo> scores);
+
+    /**
+     * Returns given analysed score as shown over a move: the score itself, or W or L and the
+     * final disc difference once the move is known to win or lose.
+     * @param score a score of AlphaBetaPlayer
+     * @return String
+     */
+    static String formatScore(int score) {
+        if (score >= AlphaBetaPlayer.WIN_SCORE) {
+            return "W+" + (score - AlphaBetaPlayer.WIN_SCORE);
+        }
+        if (score <= -AlphaBetaPlayer.WIN_SCORE) {
+            return "L" + (score + AlphaBetaPlayer.WIN_SCORE);
+        }
+        return Integer.toString(score);
+    }
+
+    /**
+     * Returns the highest score of given analysed moves.
+     * @param scores SearchInfo of every analysed move
+     * @return int, Integer.MIN_VALUE if there are none
+     */
+    static int bestScore(List<SearchInfo> scores) {
+        int best = Integer.MIN_VALUE;
+        for (SearchInfo info : scores) {
+            best = Math.max(best, info.getScore());
+        }
+        return best;
+    }
+}
@@ -0,0 +1,177 @@
+package gameapp;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+import mechanics.Board;
+import mechanics.Game;
+import mechanics.Point;
+import mechanics.SearchInfo;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class CanvasBoard extends Pane implements BoardView {
+
+    private static final Color MOVE_HINT = Color.rgb(255, 0, 0, 0.3);
+
+    private final Canvas canvas;
+    private Game game;
+    private Consumer<Point> onPlay;
+    private Color player1Color;
+    private Color player2Color;
+    private List<SearchInfo> scores;
+    // The board's layout on the canvas, set by resize: the size of a cell and the top left corner
+    // of the board, which is centered like a GameBoard's grid.
+    private int cellWidth;
+    private int cellHeight;
+    private int left;
+    private int top;
+
+    /**
+     * Creates a new CanvasBoard, drawing the whole board on a single canvas. A redraw costs the
+     * same few calls per block at any window size, with no scene graph nodes per block, so big
+     * boards stay as fast as small ones.
+     */
+    public CanvasBoard() {
+        this.canvas = new Canvas();
+        this.getChildren().add(canvas);
+        this.canvas.setOnMouseClicked(event -> {
+            if (game == null || game.getBoard() == null || onPlay == null || cellWidth <= 0 || cellHeight <= 0) {
+                return;
+            }
+            int column = (int) Math.floor((event.getX() - left) / cellWidth);
+            int row = (int) Math.floor((event.getY() - top) / cellHeight);
+            if (row >= 0 && row < game.getHeight() && column >= 0 && column < game.getWidth()) {
+                onPlay.accept(new Point(row, column));
+            }
+        });
+        this.game = null;
+        this.scores = Collections.emptyList();
+    }
+
+    @Override
+    public Region getRegion() {
+        return this;
+    }
+
+    @Override
+    public void setGame(Game game) {
+        this.game = game;
+    }
+
+    @Override
+    public void setOnPlay(Consumer<Point> onPlay) {
+        this.onPlay = onPlay;
+    }
+
+    @Override
+    public void draw(Color player1Color, Color player2Color) {
+        this.player1Color = player1Color;
+        this.player2Color = player2Color;
+        resize();
+    }
+
+    @Override
+    public void refresh() {
+        paint();
+    }
+
+    @Override
+    public void resize() {
+        canvas.setWidth(Math.max(0, this.getPrefWidth()));
+        canvas.setHeight(Math.max(0, this.getPrefHeight()));
+        if (game != null && game.getBoard() != null) {
+            this.cellHeight = (int) canvas.getHeight() / game.getHeight();
+            this.cellWidth = (int) canvas.getWidth() / game.getWidth();
+            this.left = ((int) canvas.getWidth() - cellWidth * game.getWidth()) / 2;
+            this.top = ((int) canvas.getHeight() - cellHeight * game.getHeight()) / 2;
+        }
+        paint();
+    }
+
+    @Override
+    public void showScores(List<SearchInfo> scores) {
+        this.scores = scores;
+        paint();
+    }
+
+    /**
+     * Paint the cells, coins, move hints and analysed scores of the whole board in one pass.
+     * Cell (i, j) of the game is painted in column j and row i, as GameBoard places it.
+     */
+    private void paint() {
+        GraphicsContext graphics = canvas.getGraphicsContext2D();
+        graphics.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        if (game == null || game.getBoard() == null) {
+            return;
+        }
+        int cellMinSize = (cellWidth > cellHeight) ? cellHeight : cellWidth;
+        for (int i = 0; i < game.getHeight(); i++) {
+            for (int j = 0; j < game.getWidth(); j++) {
+                int x = left + j * cellWidth;
+                int y = top + i * cellHeight;
+                graphics.setFill((i % 2 == j % 2) ? Color.LIGHTBLUE : Color.LIGHTCYAN);
+                graphics.fillRect(x, y, cellWidth, cellHeight);
+                Board.Mark mark = game.getMark(i, j);
+                if (mark != Board.Mark.BLANK) {
+                    Color outer = (mark == Board.Mark.BLACK) ? player1Color : player2Color;
+                    Color inner = (mark == Board.Mark.BLACK) ? player2Color : player1Color;
+                    double centerX = x + cellWidth / 2.0;
+                    double centerY = y + cellHeight / 2.0;
+                    fillCircle(graphics, centerX, centerY, cellMinSize / 2 - 2, outer);
+                    fillCircle(graphics, centerX, centerY, cellMinSize / 2 - 3, inner);
+                    fillCircle(graphics, centerX, centerY, cellMinSize / 2 - 5, outer);
+                } else if (game.isLegal(i, j)) {
+                    graphics.setFill(MOVE_HINT);
+                    graphics.fillRect(x, y, cellWidth, cellHeight);
+                }
+            }
+        }
+        if (!scores.isEmpty()) {
+            paintScores(graphics, cellMinSize);
+        }
+    }
+
+    /**
+     * Paint the analysed scores centered over their moves' cells, the best one bold.
+     * @param graphics GraphicsContext
+     * @param cellMinSize the smaller side of a cell
+     */
+    private void paintScores(GraphicsContext graphics, int cellMinSize) {
+        int best = BoardView.bestScore(scores);
+        Font plain = Font.font(Font.getDefault().getFamily(), FontWeight.NORMAL, Math.max(1, cellMinSize / 3));
+        Font bold = Font.font(Font.getDefault().getFamily(), FontWeight.BOLD, Math.max(1, cellMinSize / 3));
+        graphics.setTextAlign(TextAlignment.CENTER);
+        graphics.setTextBaseline(VPos.CENTER);
+        graphics.setFill(Color.BLACK);
+        for (SearchInfo info : scores) {
+            Point move = info.getMove();
+            graphics.setFont((info.getScore() == best) ? bold : plain);
+            graphics.fillText(BoardView.formatScore(info.getScore()),
+                    left + move.getY() * cellWidth + cellWidth / 2.0, top + move.getX() * cellHeight + cellHeight / 2.0);
+        }
+    }
+
+    /**
+     * Fill a circle of given center, radius and color.
+     * @param graphics GraphicsContext
+     * @param centerX double
+     * @param centerY double
+     * @param radius int, nothing is drawn if it's not positive
+     * @param color Color
+     */
+    private static void fillCircle(GraphicsContext graphics, double centerX, double centerY, int radius, Color color) {
+        if (radius > 0) {
+            graphics.setFill(color);
+            graphics.fillOval(centerX - radius, centerY - radius, 2 * radius, 2 * radius);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package gameapp;
+
+import javafx.application.Platform;
+import mechanics.AlphaBetaPlayer;
+import mechanics.Game;
+import mechanics.Point;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+public class EngineRunner {
+
+    private final AlphaBetaPlayer player;
+    private final ExecutorService executor;
+    private Future<?> running;
+    // The cancel token of the running search. Each search has its own, so a cancel can't be
+    // undone by the next search starting.
+    private AtomicBoolean cancelled;
+    // Counts the searches asked for. A result is only delivered if no newer search was asked for
+    // and nothing was cancelled since its own was, so a stale move is never played.
+    private int generation;
+    private long thinkingSince;
+
+    /**
+     * Creates a new runner choosing moves with given player on a background thread of its own, so
+     * the FX application thread never waits for a search. All its methods are called on the FX
+     * application thread.
+     * @param player AlphaBetaPlayer, used by this runner only
+     */
+    public EngineRunner(AlphaBetaPlayer player) {
+        this.player = player;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "engine");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.running = null;
+        this.generation = 0;
+    }
+
+    /**
+     * Start choosing a move for the current player of given game, cancelling any search still
+     * running. The game is copied first, so it may be changed right away.
+     * @param game a started Game
+     * @param onMove given the chosen move on the FX application thread, or null if the current
+     *               player had no move. Not called if the search is cancelled.
+     */
+    public void think(Game game, Consumer<Point> onMove) {
+        cancel();
+        Game position = new Game(game);
+        int ticket = this.generation;
+        AtomicBoolean token = new AtomicBoolean();
+        this.cancelled = token;
+        this.thinkingSince = System.nanoTime();
+        this.running = executor.submit(() -> {
+            Point move = null;
+            try {
+                move = player.chooseMove(position, token);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+            Point chosen = move;
+            Platform.runLater(() -> {
+                if (ticket == this.generation) {
+                    this.running = null;
+                    onMove.accept(chosen);
+                }
+            });
+        });
+    }
+
+    /**
+     * Stop the running search, if any, and drop its result.
+     */
+    public void cancel() {
+        this.generation++;
+        if (running != null) {
+            cancelled.set(true);
+            // A search that didn't start yet never will.
+            running.cancel(false);
+            this.running = null;
+        }
+    }
+
+    /**
+     * Returns true if a search is running whose move wasn't delivered yet.
+     * @return boolean
+     */
+    public boolean isThinking() {
+        return running != null;
+    }
+
+    /**
+     * Returns the number of positions the running search visits per second so far.
+     * @return long
+     */
+    public long getNodesPerSecond() {
+        long nanos = System.nanoTime() - thinkingSince;
+        if (!isThinking() || nanos <= 0) {
+            return 0;
+        }
+        return (long) (player.getNodes() * 1e9 / nanos);
+    }
+}
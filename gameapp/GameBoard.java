@@ -1,42 +1,138 @@
 package gameapp;
 
 import javafx.fxml.FXMLLoader;
-import javafx.geometry.HPos;
-import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.scene.shape.Rectangle;
 import mechanics.Board;
 import mechanics.Game;
 import mechanics.Point;
+import mechanics.SearchInfo;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
-public class GameBoard extends GridPane {
+public class GameBoard extends GridPane implements BoardView {
 
     private Game game;
-    private Label currentTurn;
-    private Label player1Score;
-    private Label player2Score;
+    private Consumer<Point> onPlay;
+    private Color player1Color;
+    private Color player2Color;
+    // One node for each block, kept from move to move: cells[i][j] shows the game's point (i, j)
+    // in column j and row i.
+    private Cell[][] cells;
+    // The cells showing an analysed score.
+    private final List<Cell> scored;
 
     /**
-     * Creates a new GameBoard object with given references to Labels from root Pane.
-     * @param player1Score Label
-     * @param player2Score Label
-     * @param currentTurn Label
+     * One block of the board: its background, the button playing it while it's a legal move, the
+     * three rings of a coin and the analysed score of the move, all kept and only changed when the
+     * block does.
      */
-    public GameBoard(Label player1Score, Label player2Score, Label currentTurn) {
+    private final class Cell extends StackPane {
+        private final Rectangle background;
+        private final Button play;
+        private final Circle[] coin;
+        private final Label score;
+        private Board.Mark mark;
+        private boolean legal;
+
+        /**
+         * Creates a new empty cell of given point.
+         * @param i point's x parameter
+         * @param j point's y parameter
+         */
+        private Cell(int i, int j) {
+            this.background = new Rectangle(0, 0, (i % 2 == j % 2) ? Color.LIGHTBLUE : Color.LIGHTCYAN);
+            this.play = new Button();
+            this.play.setId("play");
+            this.play.setOnAction(event -> {
+                if (onPlay != null) {
+                    onPlay.accept(new Point(i, j));
+                }
+            });
+            this.play.setVisible(false);
+            this.coin = new Circle[] {new Circle(), new Circle(), new Circle()};
+            this.getChildren().addAll(background, play);
+            for (Circle circle : coin) {
+                circle.setVisible(false);
+                this.getChildren().add(circle);
+            }
+            this.score = new Label();
+            this.score.setId("score");
+            this.score.setMouseTransparent(true);
+            this.score.setVisible(false);
+            this.getChildren().add(score);
+            this.mark = Board.Mark.BLANK;
+            this.legal = false;
+        }
+
+        /**
+         * Rescale the cell's nodes to given cell size.
+         * @param cellWidth int
+         * @param cellHeight int
+         */
+        private void resize(int cellWidth, int cellHeight) {
+            background.setWidth(cellWidth);
+            background.setHeight(cellHeight);
+            play.setPrefSize(cellWidth, cellHeight);
+            int cellMinSize = (cellWidth > cellHeight) ? cellHeight : cellWidth;
+            coin[0].setRadius(Math.max(0, cellMinSize / 2 - 2));
+            coin[1].setRadius(Math.max(0, cellMinSize / 2 - 3));
+            coin[2].setRadius(Math.max(0, cellMinSize / 2 - 5));
+        }
+
+        /**
+         * Show given mark and legality, touching the nodes only if they changed.
+         * @param mark the block's mark
+         * @param legal whether the block is a legal move of the current player
+         * @param recolor whether to paint the coin even if the mark didn't change
+         */
+        private void update(Board.Mark mark, boolean legal, boolean recolor) {
+            if (mark != this.mark || recolor) {
+                this.mark = mark;
+                boolean shown = (mark != Board.Mark.BLANK);
+                Color outer = (mark == Board.Mark.BLACK) ? player1Color : player2Color;
+                Color inner = (mark == Board.Mark.BLACK) ? player2Color : player1Color;
+                coin[0].setFill(outer);
+                coin[1].setFill(inner);
+                coin[2].setFill(outer);
+                for (Circle circle : coin) {
+                    circle.setVisible(shown);
+                }
+            }
+            if (legal != this.legal) {
+                this.legal = legal;
+                play.setVisible(legal);
+            }
+        }
+
+        /**
+         * Show given analysed score over the cell.
+         * @param text the formatted score, or null to hide it
+         * @param best whether it's the best score of the position
+         */
+        private void showScore(String text, boolean best) {
+            score.setText((text == null) ? "" : text);
+            score.setStyle(best ? "-fx-font-weight: BOLD" : "");
+            score.setVisible(text != null);
+        }
+    }
+
+    /**
+     * Creates a new GameBoard object, showing every block with nodes of its own.
+     */
+    public GameBoard() {
         FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("fxmls/GameBoard.fxml"));
         fxmlLoader.setRoot(this);
         fxmlLoader.setController(this);
-        this.currentTurn = currentTurn;
-        this.player1Score = player1Score;
-        this.player2Score = player2Score;
 
         try {
             fxmlLoader.load();
@@ -44,83 +140,88 @@ public class GameBoard extends GridPane {
             throw new RuntimeException(exception);
         }
         game = null;
+        cells = new Cell[0][0];
+        scored = new ArrayList<>();
     }
 
-    /**
-     * Set's the game reference to given Game object.
-     * @param game Game
-     */
+    @Override
+    public Region getRegion() {
+        return this;
+    }
+
+    @Override
     public void setGame(Game game) {
         this.game = game;
     }
 
-    /**
-     * Draw the board while using given colors for players' coins.
-     * @param player1Color Color
-     * @param player2Color Color
-     */
+    @Override
+    public void setOnPlay(Consumer<Point> onPlay) {
+        this.onPlay = onPlay;
+    }
+
+    @Override
     public void draw(Color player1Color, Color player2Color) {
-        this.getChildren().clear();
-        int height = (int)this.getPrefHeight();
-        int width = (int)this.getPrefWidth();
-
-        int cellHeight = height / game.getHeight();
-        int cellWidth = width / game.getWidth();
-
-        for (int i = 0; i < game.getHeight(); i++) {
-            for (int j = 0; j < game.getWidth(); j++) {
-                if (i % 2 == j % 2) {
-                    this.add(new Rectangle(cellWidth, cellHeight, Color.LIGHTBLUE), j, i);
-                } else {
-                    this.add(new Rectangle(cellWidth, cellHeight, Color.LIGHTCYAN), j, i);
-                }
-                if (game.getAvailableMoves().contains(new Point(i, j))) {
-                    Button play = new Button();
-                    play.setPrefSize(cellWidth, cellHeight);
-                    final int I = i, J = j;
-                    play.setId("play");
-                    play.setOnAction(event -> {
-                        if (this.game.playMove(new Point(I, J))) {
-                            draw(player1Color, player2Color);
-                            String cTurn = (game.getCurrentTurn() == Game.Player.PLAYER1) ? "Player 1" : "Player 2";
-                            int p1Score = game.getScore(Game.Player.PLAYER1);
-                            int p2Score = game.getScore(Game.Player.PLAYER2);
-                            currentTurn.setText("Turn: " + cTurn);
-                            player1Score.setText("Player 1: " + p1Score);
-                            player2Score.setText("Player 2: " + p2Score);
-                            if (game.isGameOver()) {
-                                Alert gameOver = new Alert(Alert.AlertType.INFORMATION);
-                                gameOver.setTitle("Game Over!");
-                                if (p1Score > p2Score) {
-                                    gameOver.setHeaderText("Player 1 won with a score of " + p1Score);
-                                } else if (p1Score < p2Score) {
-                                    gameOver.setHeaderText("Player 2 won with a score of " + p2Score);
-                                } else {
-                                    gameOver.setHeaderText("The game ended with a tie of " + p1Score);
-                                }
-                                gameOver.setContentText("Congratulations! We hope you enjoyed the game!");
-                                gameOver.showAndWait();
-                            }
-                        }
-                    });
-                    this.add(play, j, i);
-                }
-                int cellMinSize = (cellWidth > cellHeight) ? cellHeight : cellWidth;
-                List<Circle> coin = new ArrayList<>();
-                if (game.getMark(i, j) == Board.Mark.BLACK){
-                    coin.add(new Circle(cellMinSize / 2 - 2, player1Color));
-                    coin.add(new Circle(cellMinSize / 2 - 3, player2Color));
-                    coin.add(new Circle(cellMinSize / 2 - 5, player1Color));
-                } else if (game.getMark(i, j) == Board.Mark.WHITE) {
-                    coin.add(new Circle(cellMinSize / 2 - 2, player2Color));
-                    coin.add(new Circle(cellMinSize / 2 - 3, player1Color));
-                    coin.add(new Circle(cellMinSize / 2 - 5, player2Color));
-                }
-                for (Circle circle : coin) {
-                    this.add(circle, j, i);
-                    this.setHalignment(circle, HPos.CENTER);
+        this.player1Color = player1Color;
+        this.player2Color = player2Color;
+        // The cells are only built again if the game's size changed since the last draw.
+        if (cells.length != game.getHeight() || cells[0].length != game.getWidth()) {
+            this.getChildren().clear();
+            scored.clear();
+            cells = new Cell[game.getHeight()][game.getWidth()];
+            for (int i = 0; i < game.getHeight(); i++) {
+                for (int j = 0; j < game.getWidth(); j++) {
+                    cells[i][j] = new Cell(i, j);
+                    this.add(cells[i][j], j, i);
                 }
             }
         }
+        resize();
+        update(true);
+    }
+
+    @Override
+    public void refresh() {
+        update(false);
+    }
+
+    @Override
+    public void resize() {
+        if (cells.length == 0) {
+            return;
+        }
+        int cellHeight = (int)this.getPrefHeight() / cells.length;
+        int cellWidth = (int)this.getPrefWidth() / cells[0].length;
+        for (Cell[] row : cells) {
+            for (Cell cell : row) {
+                cell.resize(cellWidth, cellHeight);
+            }
+        }
+    }
+
+    @Override
+    public void showScores(List<SearchInfo> scores) {
+        for (Cell cell : scored) {
+            cell.showScore(null, false);
+        }
+        scored.clear();
+        int best = BoardView.bestScore(scores);
+        for (SearchInfo info : scores) {
+            Point move = info.getMove();
+            Cell cell = cells[move.getX()][move.getY()];
+            cell.showScore(BoardView.formatScore(info.getScore()), info.getScore() == best);
+            scored.add(cell);
+        }
+    }
+
+    /**
+     * Show the game's marks and legal moves on the cells.
+     * @param recolor whether to paint every coin, as after the players' colors changed
+     */
+    private void update(boolean recolor) {
+        for (int i = 0; i < cells.length; i++) {
+            for (int j = 0; j < cells[i].length; j++) {
+                cells[i][j].update(game.getMark(i, j), game.isLegal(i, j), recolor);
+            }
+        }
     }
 }
@@ -1,26 +1,53 @@
 package gameapp;
 
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
+import javafx.util.Duration;
+import mechanics.AlphaBetaPlayer;
 import mechanics.Game;
 import mechanics.GameSettings;
+import mechanics.OpeningBook;
+import mechanics.Point;
 
+import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.ResourceBundle;
 
 public class GameController implements Initializable {
+    private static final Game.Player COMPUTER_PLAYER = Game.Player.PLAYER2;
+    // Milliseconds the computer thinks about every move.
+    private static final long COMPUTER_TIME = 1000;
+    private static final double SPEED_UPDATE_MILLIS = 250;
+    // The computer plays from this book while the game is in it, if it's found next to config.ser.
+    private static final String BOOK_FILE = "book.rvps";
+
     @FXML
     private HBox root;
     @FXML
     private Button start;
     @FXML
+    private Button undo;
+    @FXML
     private Button exit;
     @FXML
     private Button settings;
     @FXML
+    private CheckBox analysis;
+    @FXML
     private Label scoreTitle;
     @FXML
     private Label currentTurn;
@@ -28,11 +55,27 @@ public class GameController implements Initializable {
     private Label player1Score;
     @FXML
     private Label player2Score;
+    @FXML
+    private ProgressIndicator thinking;
+    @FXML
+    private Label engineSpeed;
 
     private boolean gameOn;
 
     private GameSettings gameSettings;
 
+    private BoardView boardView;
+
+    private RedrawScheduler redrawScheduler;
+
+    private boolean computerOpponent;
+
+    private EngineRunner engine;
+
+    private Timeline speedUpdates;
+
+    private AnalysisRunner analysisRunner;
+
     /**
      * @
      */
@@ -40,10 +83,31 @@ public class GameController implements Initializable {
     public void initialize(URL location, ResourceBundle resources) {
         this.gameSettings = GameSettings.loadFromFile();
         SettingScreen settingScreen = new SettingScreen(gameSettings);
-        GameBoard gameBoard = new GameBoard(player1Score, player2Score, currentTurn);
+        GameBoard gameBoard = new GameBoard();
+        CanvasBoard canvasBoard = new CanvasBoard();
         Game game = new Game();
+        gameBoard.setOnPlay(point -> playMove(game, point));
+        canvasBoard.setOnPlay(point -> playMove(game, point));
+        this.redrawScheduler = new RedrawScheduler(() -> {
+            Region board = boardView.getRegion();
+            board.setPrefWidth(root.getWidth() - 120);
+            board.setPrefHeight(root.getHeight());
+            boardView.resize();
+        }, () -> boardView.refresh());
+        AlphaBetaPlayer computer = new AlphaBetaPlayer(COMPUTER_TIME);
+        computer.setOpeningBook(loadBook());
+        this.engine = new EngineRunner(computer);
+        this.speedUpdates = new Timeline(new KeyFrame(Duration.millis(SPEED_UPDATE_MILLIS),
+                event -> engineSpeed.setText(String.format("%,d nodes/sec", engine.getNodesPerSecond()))));
+        this.speedUpdates.setCycleCount(Animation.INDEFINITE);
+        showThinking(false);
+        // An analysis runs until it's stopped, so its player's time budget is never used.
+        this.analysisRunner = new AnalysisRunner(new AlphaBetaPlayer(COMPUTER_TIME));
+        this.analysis.setVisible(false);
+        this.analysis.selectedProperty().addListener((observable, oldValue, newValue) -> analyze(game));
         this.gameOn = false;
         this.exit.setVisible(false);
+        this.undo.setVisible(false);
         this.currentTurn.setVisible(false);
         this.scoreTitle.setVisible(false);
         this.scoreTitle.setStyle("-fx-font-weight: BOLD");
@@ -51,20 +115,24 @@ public class GameController implements Initializable {
         this.player2Score.setVisible(false);
 
         start.setOnAction(event -> {
-            gameBoard.setPrefWidth(root.getWidth() - 120);
-            gameBoard.setPrefHeight(root.getHeight());
-            root.getChildren().add(0, gameBoard);
-            root.setOnKeyPressed(gameBoard.getOnKeyPressed());
+            if (gameSettings.getRenderer() == GameSettings.Renderer.CANVAS) {
+                this.boardView = canvasBoard;
+            } else {
+                this.boardView = gameBoard;
+            }
+            Region board = boardView.getRegion();
+            board.setPrefWidth(root.getWidth() - 120);
+            board.setPrefHeight(root.getHeight());
+            root.getChildren().add(0, board);
+            root.setOnKeyPressed(board.getOnKeyPressed());
             game.initialize(gameSettings);
             this.gameOn = true;
+            this.computerOpponent = (gameSettings.getOpponent() == GameSettings.Opponent.COMPUTER);
             game.start();
-            gameBoard.setGame(game);
-            gameBoard.draw(gameSettings.getPlayer1Color(), gameSettings.getPlayer2Color());
+            boardView.setGame(game);
+            boardView.draw(gameSettings.getPlayer1Color(), gameSettings.getPlayer2Color());
 
-            String cTurn = (game.getCurrentTurn() == Game.Player.PLAYER1) ? "Player 1" : "Player 2";
-            this.currentTurn.setText("Turn: " + cTurn);
-            this.player1Score.setText("Player 1: " + game.getScore(Game.Player.PLAYER1));
-            this.player2Score.setText("Player 2: " + game.getScore(Game.Player.PLAYER2));
+            updateLabels(game);
             this.currentTurn.setVisible(true);
             this.scoreTitle.setVisible(true);
             this.player1Score.setVisible(true);
@@ -73,6 +141,27 @@ public class GameController implements Initializable {
             this.settings.setVisible(false);
             this.exit.setText("End Game");
             this.exit.setVisible(true);
+            this.undo.setVisible(true);
+            this.analysis.setVisible(true);
+            computerTurn(game);
+            analyze(game);
+        });
+
+        undo.setOnAction(event -> {
+            stopAnalysis();
+            engine.cancel();
+            showThinking(false);
+            if (game.unmakeMove()) {
+                // Take back the computer's moves too, back to the last move of a human.
+                boolean takenBack = true;
+                while (takenBack && isComputerTurn(game)) {
+                    takenBack = game.unmakeMove();
+                }
+                redrawScheduler.requestRefresh();
+                updateLabels(game);
+            }
+            computerTurn(game);
+            analyze(game);
         });
 
         settings.setOnAction( event -> {
@@ -85,6 +174,10 @@ public class GameController implements Initializable {
         });
 
         exit.setOnAction( event -> {
+            stopAnalysis();
+            engine.cancel();
+            showThinking(false);
+            redrawScheduler.cancel();
             game.endGame();
             this.currentTurn.setVisible(false);
             this.scoreTitle.setVisible(false);
@@ -93,22 +186,163 @@ public class GameController implements Initializable {
             this.start.setVisible(true);
             this.settings.setVisible(true);
             this.exit.setVisible(false);
+            this.undo.setVisible(false);
+            this.analysis.setVisible(false);
             this.gameOn = false;
             this.root.getChildren().remove(0);
         });
 
+        // Both sizes change together while dragging a corner, and many times a second: the
+        // scheduler fits the board once the window settles.
         root.widthProperty().addListener((observable, oldValue, newValue) -> {
-            double boardNewWidth = newValue.doubleValue() - 120;
-            gameBoard.setPrefWidth(boardNewWidth);
             if (this.gameOn) {
-                gameBoard.draw(gameSettings.getPlayer1Color(), gameSettings.getPlayer2Color());
+                redrawScheduler.requestResize();
             }
         });
-        root.heightProperty().addListener(((observable, oldValue, newValue) -> {
-            gameBoard.setPrefHeight(newValue.doubleValue());
+        root.heightProperty().addListener((observable, oldValue, newValue) -> {
             if (this.gameOn) {
-                gameBoard.draw(gameSettings.getPlayer1Color(), gameSettings.getPlayer2Color());
+                redrawScheduler.requestResize();
+            }
+        });
+    }
+
+    /**
+     * Play the move a human picked on the board, unless it's the computer's turn.
+     * @param game Game
+     * @param move Point
+     */
+    private void playMove(Game game, Point move) {
+        if (engine.isThinking() || isComputerTurn(game) || !game.isLegal(move.getX(), move.getY())) {
+            return;
+        }
+        stopAnalysis();
+        applyMove(game, move);
+    }
+
+    /**
+     * Play the move of given point if it's legal, show the game after it, and announce the winner
+     * if it ended the game. Otherwise let the computer think if it's its turn.
+     * @param game Game
+     * @param move Point
+     */
+    private void applyMove(Game game, Point move) {
+        if (!game.playMove(move)) {
+            return;
+        }
+        redrawScheduler.requestRefresh();
+        updateLabels(game);
+        if (game.isGameOver()) {
+            int p1Score = game.getScore(Game.Player.PLAYER1);
+            int p2Score = game.getScore(Game.Player.PLAYER2);
+            Alert gameOver = new Alert(Alert.AlertType.INFORMATION);
+            gameOver.setTitle("Game Over!");
+            if (p1Score > p2Score) {
+                gameOver.setHeaderText("Player 1 won with a score of " + p1Score);
+            } else if (p1Score < p2Score) {
+                gameOver.setHeaderText("Player 2 won with a score of " + p2Score);
+            } else {
+                gameOver.setHeaderText("The game ended with a tie of " + p1Score);
             }
-        }));
+            gameOver.setContentText("Congratulations! We hope you enjoyed the game!");
+            gameOver.showAndWait();
+        }
+        computerTurn(game);
+        analyze(game);
+    }
+
+    /**
+     * Returns true if the computer plays the current player of given game.
+     * @param game Game
+     * @return boolean
+     */
+    private boolean isComputerTurn(Game game) {
+        return this.gameOn && this.computerOpponent && game.getCurrentTurn() == COMPUTER_PLAYER;
+    }
+
+    /**
+     * If it's the computer's turn, start choosing its move in the background. The move is played
+     * once it's chosen, unless the game was ended or a move was taken back meanwhile.
+     * @param game Game
+     */
+    private void computerTurn(Game game) {
+        if (!isComputerTurn(game) || game.isGameOver()) {
+            return;
+        }
+        showThinking(true);
+        engine.think(game, move -> {
+            showThinking(false);
+            if (move != null) {
+                applyMove(game, move);
+            }
+        });
+    }
+
+    /**
+     * If analysis is on and it's a human's turn, start scoring every available move in the
+     * background, showing the scores over the board as they come. Any earlier analysis is
+     * stopped and its scores hidden first.
+     * @param game Game
+     */
+    private void analyze(Game game) {
+        stopAnalysis();
+        if (!this.gameOn || !this.analysis.isSelected() || game.isGameOver() || isComputerTurn(game)) {
+            return;
+        }
+        analysisRunner.start(game, scores -> boardView.showScores(scores));
+    }
+
+    /**
+     * Stop the running analysis and hide its scores.
+     */
+    private void stopAnalysis() {
+        analysisRunner.cancel();
+        if (boardView != null) {
+            boardView.showScores(Collections.emptyList());
+        }
+    }
+
+    /**
+     * Show or hide the progress indicator and search speed of the computer.
+     * @param shown boolean
+     */
+    private void showThinking(boolean shown) {
+        this.thinking.setVisible(shown);
+        this.engineSpeed.setVisible(shown);
+        if (shown) {
+            this.engineSpeed.setText("");
+            this.speedUpdates.play();
+        } else {
+            this.speedUpdates.stop();
+        }
+    }
+
+    /**
+     * Update the turn and score labels from given game.
+     * @param game Game
+     */
+    private void updateLabels(Game game) {
+        String cTurn = (game.getCurrentTurn() == Game.Player.PLAYER1) ? "Player 1" : "Player 2";
+        this.currentTurn.setText("Turn: " + cTurn);
+        this.player1Score.setText("Player 1: " + game.getScore(Game.Player.PLAYER1));
+        this.player2Score.setText("Player 2: " + game.getScore(Game.Player.PLAYER2));
+    }
+
+    /**
+     * Opens the computer's opening book from the working directory. It stays open while the
+     * application runs.
+     * @return OpeningBook, or null if there's none or it can't be opened.
+     */
+    private static OpeningBook loadBook() {
+        Path path = Paths.get(BOOK_FILE);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            return OpeningBook.open(path);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        System.out.println("Couldn't open the opening book. Playing without it.");
+        return null;
     }
 }
@@ -0,0 +1,78 @@
+package gameapp;
+
+import javafx.animation.AnimationTimer;
+
+public class RedrawScheduler extends AnimationTimer {
+
+    // A resize is applied once the window stopped changing size for this long...
+    private static final long RESIZE_DELAY = 100_000_000L;
+    // ...or at the latest this long after the first size change, so a long drag still shows.
+    private static final long MAX_RESIZE_DELAY = 250_000_000L;
+
+    private final Runnable resize;
+    private final Runnable refresh;
+    private boolean resizePending;
+    private boolean refreshPending;
+    private long firstResize;
+    private long lastResize;
+
+    /**
+     * Creates a new scheduler that coalesces redraw requests: however many come in, the board is
+     * resized and refreshed at most once per pulse, and resizes wait for the window to settle.
+     * Requests and redraws all happen on the FX application thread.
+     * @param resize fits the board to the window
+     * @param refresh shows the game's current position
+     */
+    public RedrawScheduler(Runnable resize, Runnable refresh) {
+        this.resize = resize;
+        this.refresh = refresh;
+        this.resizePending = false;
+        this.refreshPending = false;
+    }
+
+    /**
+     * Ask for the board to be fitted to the window once its size settles.
+     */
+    public void requestResize() {
+        long now = System.nanoTime();
+        if (!resizePending) {
+            this.resizePending = true;
+            this.firstResize = now;
+        }
+        this.lastResize = now;
+        start();
+    }
+
+    /**
+     * Ask for the board to show the game's current position on the next pulse.
+     */
+    public void requestRefresh() {
+        this.refreshPending = true;
+        start();
+    }
+
+    /**
+     * Drop every pending request, as when the board is taken off the screen.
+     */
+    public void cancel() {
+        this.resizePending = false;
+        this.refreshPending = false;
+        stop();
+    }
+
+    @Override
+    public void handle(long now) {
+        if (resizePending && (now - lastResize >= RESIZE_DELAY || now - firstResize >= MAX_RESIZE_DELAY)) {
+            this.resizePending = false;
+            resize.run();
+        }
+        if (refreshPending) {
+            this.refreshPending = false;
+            refresh.run();
+        }
+        if (!resizePending) {
+            // Nothing left to wait for, so stop taking pulses until the next request.
+            stop();
+        }
+    }
+}
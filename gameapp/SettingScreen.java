@@ -22,6 +22,8 @@ public class SettingScreen extends VBox {
     private ChoiceBox<Game.Player> playerChoice;
     private ChoiceBox<String> player1ColorChoice;
     private ChoiceBox<String> player2ColorChoice;
+    private ChoiceBox<GameSettings.Renderer> rendererChoice;
+    private ChoiceBox<GameSettings.Opponent> opponentChoice;
     private Map<String, Color> colorMap;
     private Label changesSaved;
     private Button apply;
@@ -96,6 +98,26 @@ public class SettingScreen extends VBox {
         this.getChildren().add(3, player1ColorPane);
         this.getChildren().add(4, player2ColorPane);
 
+        HBox rendererPane = new HBox();
+        rendererPane.setPrefSize(400, 40);
+        rendererPane.setStyle("-fx-alignment: CENTER");
+        rendererPane.setSpacing(10);
+        rendererPane.getChildren().add(0, new Label("Board Renderer:"));
+        rendererChoice = new ChoiceBox<>();
+        setRendererChoice();
+        rendererPane.getChildren().add(1, rendererChoice);
+        this.getChildren().add(5, rendererPane);
+
+        HBox opponentPane = new HBox();
+        opponentPane.setPrefSize(400, 40);
+        opponentPane.setStyle("-fx-alignment: CENTER");
+        opponentPane.setSpacing(10);
+        opponentPane.getChildren().add(0, new Label("Player 2 Plays As:"));
+        opponentChoice = new ChoiceBox<>();
+        setOpponentChoice();
+        opponentPane.getChildren().add(1, opponentChoice);
+        this.getChildren().add(6, opponentPane);
+
         HBox buttonsPane = new HBox();
         buttonsPane.setPrefSize(400, 40);
         buttonsPane.setStyle("-fx-alignment: CENTER");
@@ -117,6 +139,16 @@ public class SettingScreen extends VBox {
                 changesSaved.setText(changesSaved.getText()
                         + "Starting Player changed to " + playerChoice.getValue() + ". \n");
             }
+            if (this.gameSettings.getRenderer() != this.rendererChoice.getValue()) {
+                this.gameSettings.setRenderer(this.rendererChoice.getValue());
+                changesSaved.setText(changesSaved.getText()
+                        + "Board Renderer changed to " + rendererChoice.getValue() + ". \n");
+            }
+            if (this.gameSettings.getOpponent() != this.opponentChoice.getValue()) {
+                this.gameSettings.setOpponent(this.opponentChoice.getValue());
+                changesSaved.setText(changesSaved.getText()
+                        + "Player 2 now plays as " + opponentChoice.getValue() + ". \n");
+            }
             String p1Choice = player1ColorChoice.getValue();
             String p2Choice = player2ColorChoice.getValue();
             if (p1Choice.equals(p2Choice)) {
@@ -139,14 +171,14 @@ public class SettingScreen extends VBox {
             }
             gameSettings.saveToFile();
         });
-        this.getChildren().add(5, buttonsPane);
+        this.getChildren().add(7, buttonsPane);
 
         HBox changesPane = new HBox();
         changesPane.setPrefSize(400, 100);
         changesPane.setStyle("-fx-alignment: CENTER");
         changesPane.getChildren().add(0, changesSaved);
         changesPane.setSpacing(10);
-        this.getChildren().add(6, changesPane);
+        this.getChildren().add(8, changesPane);
     }
 
     /**
@@ -175,6 +207,22 @@ public class SettingScreen extends VBox {
         this.playerChoice.setValue(gameSettings.getStartingPlayer());
     }
 
+    /**
+     * Initializing rendererChoice ChoiceBox, inserting options, and initializing value.
+     */
+    private void setRendererChoice() {
+        this.rendererChoice.getItems().addAll(GameSettings.Renderer.values());
+        this.rendererChoice.setValue(gameSettings.getRenderer());
+    }
+
+    /**
+     * Initializing opponentChoice ChoiceBox, inserting options, and initializing value.
+     */
+    private void setOpponentChoice() {
+        this.opponentChoice.getItems().addAll(GameSettings.Opponent.values());
+        this.opponentChoice.setValue(gameSettings.getOpponent());
+    }
+
     /**
      * Initializing player1ColorChoice and player2ColorChoice ChoiceBoxes,
      * inserting options, and initializing value.
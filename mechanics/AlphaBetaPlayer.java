@@ -0,0 +1,629 @@
+package mechanics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+public class AlphaBetaPlayer implements ComputerPlayer {
+
+    public static final int WIN_SCORE = 20000;
+    private static final int INFINITY = 30000;
+    private static final int DEFAULT_MAX_DEPTH = 64;
+    // The clock is read once every this many nodes (plus one).
+    private static final int CHECK_INTERVAL = 1023;
+    private static final int DEFAULT_TABLE_SIZE = 16;
+    private static final int DEFAULT_ENDGAME_EMPTIES = 16;
+
+    private final Evaluator evaluator;
+    private long timeBudget;
+    private int maxDepth;
+    private SearchInfo lastSearch;
+    private TranspositionTable table;
+    private int tableWidth;
+    private int tableHeight;
+    private Searcher[] searchers;
+    private ExecutorService helpers;
+    private final EndgameSolver solver;
+    private int endgameEmpties;
+    private OpeningBook book;
+
+    private long start;
+    private long deadline;
+    // Set by chooseMove itself to stop the helpers once the main search is done.
+    private volatile boolean aborted;
+    // Set by the caller to cancel the running search; only ever read here.
+    private AtomicBoolean cancelled;
+    private boolean solving;
+
+    /**
+     * The state of one searching thread: its own evaluator, move buffers and move ordering
+     * history, and the best move it found so far.
+     */
+    private final class Searcher {
+        private final Evaluator evaluator;
+        private int[][] moveBuffers;
+        private int[] history;
+        private long nodes;
+        private boolean stopped;
+        private int depthReached;
+        private int bestMove;
+        private int bestScore;
+
+        /**
+         * Creates a new searcher using given evaluator.
+         * @param evaluator Evaluator, used by this searcher only
+         */
+        private Searcher(Evaluator evaluator) {
+            this.evaluator = evaluator;
+            this.moveBuffers = new int[0][];
+            this.history = new int[0];
+        }
+
+        /**
+         * Search deeper and deeper until the time budget runs out or the search is aborted. Each
+         * depth searches the previous best move first, so a depth cut short by the clock can still
+         * replace it with a move that proved better.
+         * @param game a started Game, used by this searcher only
+         * @param rootMoves the squares of the available moves
+         * @param count number of available moves
+         * @param firstDepth the depth of the first iteration
+         * @param rotation how many of the best ordered moves to search last
+         */
+        private void search(Game game, int[] rootMoves, int count, int firstDepth, int rotation) {
+            this.nodes = 0;
+            this.stopped = false;
+            prepare(game.getBoard());
+            orderMoves(rootMoves, count);
+            for (int k = 0; k < rotation % count; k++) {
+                moveToFront(rootMoves, count, rootMoves[count - 1]);
+            }
+            this.bestMove = rootMoves[0];
+            this.bestScore = 0;
+            this.depthReached = 0;
+            int empties = game.getBoard().count(Board.Mark.BLANK);
+            for (int depth = firstDepth; depth <= maxDepth && count > 1; depth++) {
+                int alpha = -INFINITY;
+                int iterationBest = -1;
+                for (int k = 0; k < count; k++) {
+                    int score = searchChild(game, rootMoves[k], depth - 1, alpha, INFINITY, 1);
+                    if (stopped) {
+                        break;
+                    }
+                    if (score > alpha) {
+                        alpha = score;
+                        iterationBest = k;
+                    }
+                }
+                if (iterationBest >= 0) {
+                    bestMove = rootMoves[iterationBest];
+                    bestScore = alpha;
+                    moveToFront(rootMoves, count, bestMove);
+                }
+                if (stopped) {
+                    break;
+                }
+                depthReached = depth;
+                long elapsed = System.nanoTime() - start;
+                if (Math.abs(bestScore) >= WIN_SCORE || depth >= empties || elapsed * 2 > timeBudget * 1000000L) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Play given move, search the result and take the move back.
+         * @param game Game
+         * @param square the move's square
+         * @param depth remaining depth after the move
+         * @param alpha lower bound for the player to move in game
+         * @param beta upper bound for the player to move in game
+         * @param ply distance from the root after the move
+         * @return the score of the move for the player to move in game.
+         */
+        private int searchChild(Game game, int square, int depth, int alpha, int beta, int ply) {
+            Game.Player mover = game.getCurrentTurn();
+            game.makeMove(square);
+            int score;
+            // If the opponent had to pass, the same player moves again and the score keeps its sign.
+            if (game.getCurrentTurn() == mover) {
+                score = negamax(game, depth, alpha, beta, ply);
+            } else {
+                score = -negamax(game, depth, -beta, -alpha, ply);
+            }
+            game.unmakeMove();
+            return score;
+        }
+
+        /**
+         * Alpha-beta search of given game to given depth.
+         * @param game Game
+         * @param depth remaining depth
+         * @param alpha lower bound
+         * @param beta upper bound
+         * @param ply distance from the root
+         * @return the score of game for its current player.
+         */
+        private int negamax(Game game, int depth, int alpha, int beta, int ply) {
+            nodes++;
+            if ((nodes & CHECK_INTERVAL) == 0 && (aborted || cancelled.get() || System.nanoTime() > deadline)) {
+                stopped = true;
+            }
+            if (stopped) {
+                return 0;
+            }
+            if (game.isGameOver()) {
+                return finalScore(game);
+            }
+            if (depth <= 0 || ply >= moveBuffers.length) {
+                return evaluator.evaluate(game);
+            }
+            long hash = game.getHash();
+            long entry = table.probe(hash);
+            int hashMove = -1;
+            if (entry != 0) {
+                hashMove = TranspositionTable.getMove(entry);
+                if (TranspositionTable.getDepth(entry) >= depth) {
+                    int score = TranspositionTable.getScore(entry);
+                    int bound = TranspositionTable.getBound(entry);
+                    if (bound == TranspositionTable.EXACT
+                            || (bound == TranspositionTable.LOWER && score >= beta)
+                            || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                        return score;
+                    }
+                }
+            }
+            int[] moves = moveBuffers[ply];
+            int count = game.getLegalMoves(moves);
+            orderMoves(moves, count);
+            moveToFront(moves, count, hashMove);
+            int originalAlpha = alpha;
+            int best = -INFINITY;
+            int bestMove = -1;
+            for (int k = 0; k < count; k++) {
+                int score = searchChild(game, moves[k], depth - 1, alpha, beta, ply + 1);
+                if (stopped) {
+                    return 0;
+                }
+                if (score > best) {
+                    best = score;
+                    bestMove = moves[k];
+                }
+                if (score > alpha) {
+                    alpha = score;
+                }
+                if (alpha >= beta) {
+                    history[moves[k]] += depth * depth;
+                    break;
+                }
+            }
+            int bound = TranspositionTable.EXACT;
+            if (best <= originalAlpha) {
+                bound = TranspositionTable.UPPER;
+            } else if (best >= beta) {
+                bound = TranspositionTable.LOWER;
+            }
+            table.store(hash, depth, best, bound, bestMove);
+            return best;
+        }
+
+        /**
+         * Sort given moves so moves that caused cutoffs before come first.
+         * @param moves squares
+         * @param count number of moves
+         */
+        private void orderMoves(int[] moves, int count) {
+            for (int k = 1; k < count; k++) {
+                int move = moves[k];
+                int score = history[move];
+                int l = k - 1;
+                while (l >= 0 && history[moves[l]] < score) {
+                    moves[l + 1] = moves[l];
+                    l--;
+                }
+                moves[l + 1] = move;
+            }
+        }
+
+        /**
+         * Make sure the buffers fit given board, and age the history of earlier searches.
+         * @param board Board
+         */
+        private void prepare(Board board) {
+            int area = board.getBoardWidth() * board.getBoardHeight();
+            if (moveBuffers.length == 0 || moveBuffers[0].length != area || history.length != board.getSquareCount()) {
+                this.moveBuffers = new int[DEFAULT_MAX_DEPTH + 2][area];
+                this.history = new int[board.getSquareCount()];
+            }
+            for (int square = 0; square < history.length; square++) {
+                history[square] /= 2;
+            }
+        }
+    }
+
+    /**
+     * Creates a new alpha-beta player using the positional evaluator.
+     * @param timeBudget the time to think about every move, in milliseconds.
+     */
+    public AlphaBetaPlayer(long timeBudget) {
+        this(new PositionalEvaluator(), timeBudget);
+    }
+
+    /**
+     * Creates a new alpha-beta player using given evaluator.
+     * @param evaluator Evaluator
+     * @param timeBudget the time to think about every move, in milliseconds.
+     */
+    public AlphaBetaPlayer(Evaluator evaluator, long timeBudget) {
+        this.evaluator = evaluator;
+        this.timeBudget = timeBudget;
+        this.maxDepth = DEFAULT_MAX_DEPTH;
+        this.lastSearch = null;
+        this.table = new TranspositionTable(DEFAULT_TABLE_SIZE);
+        this.searchers = new Searcher[] { new Searcher(evaluator) };
+        this.helpers = null;
+        this.solver = new EndgameSolver();
+        this.endgameEmpties = DEFAULT_ENDGAME_EMPTIES;
+        this.book = null;
+        this.cancelled = new AtomicBoolean();
+    }
+
+    /**
+     * Set the time to think about every move.
+     * @param timeBudget milliseconds
+     */
+    public void setTimeBudget(long timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+
+    /**
+     * Set the deepest depth to search, even if time is left.
+     * @param maxDepth int
+     */
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = Math.min(maxDepth, DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * Set the number of empty squares from which on positions are solved to the end of the game
+     * instead of searched. A solve that can't finish in half the time budget falls back to the
+     * search for the rest of it.
+     * @param endgameEmpties int, 0 to never solve
+     */
+    public void setEndgameEmpties(int endgameEmpties) {
+        this.endgameEmpties = endgameEmpties;
+    }
+
+    /**
+     * Returns the solver of endgame positions, which keeps the time statistics of its solves.
+     * @return EndgameSolver
+     */
+    public EndgameSolver getEndgameSolver() {
+        return solver;
+    }
+
+    /**
+     * Set the book whose moves are played without a search while the game is in it. One book may
+     * be shared by players searching on different threads.
+     * @param book OpeningBook, or null to always search
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    /**
+     * Set the number of threads searching every move. Extra threads run the same iterative
+     * deepening from the root, starting from other moves and depths, and help each other through
+     * the shared transposition table. The move is taken from the thread that searched deepest.
+     * @param threads int, at least 1
+     */
+    public void setThreads(int threads) {
+        threads = Math.max(1, threads);
+        if (threads == searchers.length) {
+            return;
+        }
+        if (this.helpers != null) {
+            this.helpers.shutdown();
+            this.helpers = null;
+        }
+        Searcher[] resized = new Searcher[threads];
+        resized[0] = searchers[0];
+        for (int k = 1; k < threads; k++) {
+            resized[k] = new Searcher(evaluator.copy());
+        }
+        this.searchers = resized;
+        if (threads > 1) {
+            this.helpers = Executors.newFixedThreadPool(threads - 1, runnable -> {
+                Thread thread = new Thread(runnable, "search-helper");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Returns the number of threads searching every move.
+     * @return int
+     */
+    public int getThreads() {
+        return searchers.length;
+    }
+
+    /**
+     * Set the table remembering searched positions. Players searching at the same time may share
+     * one table.
+     * @param table TranspositionTable
+     */
+    public void setTranspositionTable(TranspositionTable table) {
+        this.table = table;
+        this.tableWidth = 0;
+        this.tableHeight = 0;
+    }
+
+    /**
+     * Returns the table remembering searched positions.
+     * @return TranspositionTable
+     */
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    /**
+     * Returns the report of the last search, or null if nothing was searched yet.
+     * @return SearchInfo
+     */
+    public SearchInfo getLastSearch() {
+        return lastSearch;
+    }
+
+    /**
+     * Returns the number of positions visited so far by the running search, or by the last one.
+     * It can be read from another thread while the search runs, but is only approximate then.
+     * @return long
+     */
+    public long getNodes() {
+        long nodes = solving ? solver.getNodes() : 0;
+        for (Searcher searcher : searchers) {
+            nodes += searcher.nodes;
+        }
+        return nodes;
+    }
+
+    @Override
+    public Point chooseMove(Game game) {
+        return chooseMove(game, new AtomicBoolean());
+    }
+
+    /**
+     * Search deeper and deeper on every thread until the time budget runs out or given token is
+     * set, and return the best move of the deepest search. The search never clears the token, so
+     * a token set by another thread at any time, even before the search started, stops it. A
+     * position in the opening book gets its book move right away, reported as a depth 0 search.
+     * @param game a started Game
+     * @param cancelled AtomicBoolean, set to make the search return soon with the best move so far
+     * @return Point
+     */
+    public Point chooseMove(Game game, AtomicBoolean cancelled) {
+        this.start = System.nanoTime();
+        this.cancelled = cancelled;
+        // The search makes and takes back moves on private copies, so the caller's game is untouched.
+        game = new Game(game);
+        this.deadline = start + timeBudget * 1000000L;
+        this.aborted = false;
+        this.solving = false;
+        for (Searcher searcher : searchers) {
+            searcher.nodes = 0;
+        }
+        prepareTable(game.getBoard());
+        int[] rootMoves = new int[game.getMoveCount()];
+        int count = game.getLegalMoves(rootMoves);
+        if (count == 0) {
+            this.lastSearch = new SearchInfo(0, 0, System.nanoTime() - start, 0, null);
+            return null;
+        }
+        Point bookMove = (book == null) ? null : book.getMove(game);
+        if (bookMove != null) {
+            this.lastSearch = new SearchInfo(0, 0, System.nanoTime() - start, 0, bookMove);
+            return bookMove;
+        }
+        int empties = game.getBoard().count(Board.Mark.BLANK);
+        if (empties <= endgameEmpties) {
+            this.solving = true;
+            solver.setDeadline(start + timeBudget * 500000L);
+            solver.setCancelled(cancelled);
+            int difference = solver.solve(game);
+            if (!solver.isStopped()) {
+                Point move = game.getBoard().toPoint(solver.getBestMove());
+                this.lastSearch = new SearchInfo(empties, solver.getNodes(), System.nanoTime() - start,
+                        exactScore(difference), move);
+                return move;
+            }
+        }
+        List<Future<?>> running = new ArrayList<>();
+        for (int k = 1; k < searchers.length && count > 1; k++) {
+            Searcher helper = searchers[k];
+            Game helperGame = new Game(game);
+            int[] helperMoves = rootMoves.clone();
+            int firstDepth = 1 + k % 2;
+            int rotation = k;
+            running.add(helpers.submit(() -> helper.search(helperGame, helperMoves, count, firstDepth, rotation)));
+        }
+        Searcher best = searchers[0];
+        best.search(game, rootMoves, count, 1, 0);
+        this.aborted = true;
+        long nodes = best.nodes;
+        for (int k = 0; k < running.size(); k++) {
+            await(running.get(k));
+            Searcher helper = searchers[k + 1];
+            nodes += helper.nodes;
+            if (helper.depthReached > best.depthReached) {
+                best = helper;
+            }
+        }
+        Point move = game.getBoard().toPoint(best.bestMove);
+        this.lastSearch = new SearchInfo(best.depthReached, nodes, System.nanoTime() - start, best.bestScore, move);
+        return move;
+    }
+
+    /**
+     * Score every available move of given game, deeper and deeper, until given token is set or
+     * every score is exact, reporting the scores so far after each move is scored. Unlike chooseMove, every
+     * move is searched with a full window, so its score is exact at its depth and not a bound.
+     * Positions with few enough empties are solved instead. Searched positions stay in the
+     * transposition table, so each depth, and the analysis or search of the next position,
+     * starts from the work of the ones before. Only the calling thread searches. Like chooseMove,
+     * it never clears the token, so a token set before the analysis started stops it too.
+     * @param game a started Game, left unchanged
+     * @param cancelled AtomicBoolean, set to make the analysis return without scoring further
+     * @param onUpdate given the latest SearchInfo of every move scored so far on the calling
+     *                 thread, with the move's score for the current player of game
+     */
+    public void analyze(Game game, AtomicBoolean cancelled, Consumer<List<SearchInfo>> onUpdate) {
+        this.start = System.nanoTime();
+        game = new Game(game);
+        this.deadline = Long.MAX_VALUE;
+        this.aborted = false;
+        this.cancelled = cancelled;
+        this.solving = false;
+        for (Searcher searcher : searchers) {
+            searcher.nodes = 0;
+        }
+        prepareTable(game.getBoard());
+        int[] rootMoves = new int[game.getMoveCount()];
+        int count = game.getLegalMoves(rootMoves);
+        SearchInfo[] results = new SearchInfo[count];
+        Game.Player mover = game.getCurrentTurn();
+        int empties = game.getBoard().count(Board.Mark.BLANK);
+        if (empties <= endgameEmpties) {
+            this.solving = true;
+            solver.setDeadline(Long.MAX_VALUE);
+            solver.setCancelled(cancelled);
+            long nodes = 0;
+            for (int k = 0; k < count && !cancelled.get(); k++) {
+                game.makeMove(rootMoves[k]);
+                int difference = solver.solve(game);
+                // If the opponent had to pass, the solve was for the same player.
+                boolean sameMover = (game.getCurrentTurn() == mover);
+                game.unmakeMove();
+                if (solver.isStopped()) {
+                    return;
+                }
+                nodes += solver.getNodes();
+                Point move = game.getBoard().toPoint(rootMoves[k]);
+                results[k] = new SearchInfo(empties, nodes, System.nanoTime() - start,
+                        exactScore(sameMover ? difference : -difference), move);
+                onUpdate.accept(finished(results));
+            }
+            return;
+        }
+        Searcher searcher = searchers[0];
+        searcher.stopped = false;
+        searcher.prepare(game.getBoard());
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            for (int k = 0; k < count; k++) {
+                int score = searcher.searchChild(game, rootMoves[k], depth - 1, -INFINITY, INFINITY, 1);
+                // The search only reads the token every so many nodes, and moves found in the
+                // table take few nodes, so it's read after every move too.
+                if (searcher.stopped || cancelled.get()) {
+                    return;
+                }
+                Point move = game.getBoard().toPoint(rootMoves[k]);
+                results[k] = new SearchInfo(depth, searcher.nodes, System.nanoTime() - start, score, move);
+                onUpdate.accept(finished(results));
+            }
+            if (depth >= empties) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the reports of the moves scored so far.
+     * @param results SearchInfo of every move, null for the moves not scored yet
+     * @return List, not to be changed
+     */
+    private static List<SearchInfo> finished(SearchInfo[] results) {
+        List<SearchInfo> finished = new ArrayList<>(results.length);
+        for (SearchInfo result : results) {
+            if (result != null) {
+                finished.add(result);
+            }
+        }
+        return Collections.unmodifiableList(finished);
+    }
+
+    /**
+     * Wait for given helper search to finish.
+     * @param search Future
+     */
+    private static void await(Future<?> search) {
+        try {
+            search.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search helper failed", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the exact score of a finished game for its current player. Any win outscores
+     * every heuristic score, and bigger wins score higher.
+     * @param game a finished Game
+     * @return int
+     */
+    static int finalScore(Game game) {
+        Game.Player player = game.getCurrentTurn();
+        return exactScore(game.getScore(player) - game.getScore(game.getOppositePlayer(player)));
+    }
+
+    /**
+     * Returns the score of given final disc differential, on the scale of finalScore.
+     * @param difference the player's coins minus the opponent's at the end of the game
+     * @return int
+     */
+    private static int exactScore(int difference) {
+        if (difference > 0) {
+            return WIN_SCORE + difference;
+        }
+        if (difference < 0) {
+            return -WIN_SCORE + difference;
+        }
+        return 0;
+    }
+
+    /**
+     * Move given move to the front of given moves, keeping the order of the others.
+     * @param moves squares
+     * @param count number of moves
+     * @param move square, or -1 to leave the moves as they are
+     */
+    private static void moveToFront(int[] moves, int count, int move) {
+        for (int k = 1; k < count; k++) {
+            if (moves[k] == move) {
+                System.arraycopy(moves, 0, moves, 1, k);
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Start a new search generation of the table. Positions of another board size are forgotten,
+     * since their squares mean something else.
+     * @param board Board
+     */
+    private void prepareTable(Board board) {
+        if (board.getBoardWidth() != tableWidth || board.getBoardHeight() != tableHeight) {
+            this.table.clear();
+            this.tableWidth = board.getBoardWidth();
+            this.tableHeight = board.getBoardHeight();
+        }
+        this.table.newSearch();
+    }
+}
@@ -0,0 +1,129 @@
+package mechanics;
+
+public class ArrayBoard extends Board {
+
+    private Mark[][] board;
+
+    /**
+     * Creates a new board object backed by a Mark grid, using given width and height parameters.
+     * It is the simplest implementation, kept as a reference for the faster boards.
+     * @param width the board width.
+     * @param height the board height.
+     */
+    public ArrayBoard(int width, int height) {
+        super(width, height, width);
+        this.board = new Mark[width][height];
+        for (int i = 0; i < boardWidth; i++) {
+            for (int j = 0; j < boardHeight; j++) {
+                this.board[i][j] = Mark.BLANK;
+            }
+        }
+        initialize();
+    }
+
+    /**
+     * Copy constructor.
+     * @param other ArrayBoard
+     */
+    public ArrayBoard(ArrayBoard other) {
+        super(other);
+        this.board = new Mark[boardWidth][];
+        for (int i = 0; i < boardWidth; i++) {
+            this.board[i] = other.board[i].clone();
+        }
+    }
+
+    @Override
+    public Board copy() {
+        return new ArrayBoard(this);
+    }
+
+    @Override
+    public Mark getMark(int square) {
+        return board[square % stride][square / stride];
+    }
+
+    @Override
+    public void setMark(int square, Mark mark) {
+        this.board[square % stride][square / stride] = mark;
+    }
+
+    @Override
+    public boolean isLegalMove(int square, Mark mark) {
+        if (getMark(square) != Mark.BLANK) {
+            return false;
+        }
+        for (int dir = 0; dir < offsets.length; dir++) {
+            if (checkDirection(square, dir, mark) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int playMove(int square, Mark mark, int[] flips) {
+        int flipped = 0;
+        for (int dir = 0; dir < offsets.length; dir++) {
+            int slots = checkDirection(square, dir, mark);
+            flips[dir] = slots;
+            int current = square;
+            for (int k = 0; k < slots; k++) {
+                current += offsets[dir];
+                setMark(current, mark);
+            }
+            flipped += slots;
+        }
+        setMark(square, mark);
+        return flipped;
+    }
+
+    @Override
+    public int getLegalMoves(Mark mark, int[] squares) {
+        int count = 0;
+        for (int square = 0; square < getSquareCount(); square++) {
+            if (isLegalMove(square, mark)) {
+                squares[count++] = square;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int count(Mark mark) {
+        int count = 0;
+        for (int i = 0; i < boardWidth; i++) {
+            for (int j = 0; j < boardHeight; j++) {
+                if (board[i][j] == mark) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Check given direction and return the number of coins that will be flipped in this direction if
+     * given mark was placed on given square.
+     * @param square int
+     * @param dir direction index in Point.directions
+     * @param mark Mark
+     * @return int
+     */
+    private int checkDirection(int square, int dir, Mark mark) {
+        int count = 0;
+        while (true) {
+            square = step(square, dir);
+            // Scan found an empty slot or reached a border = no coin will be flipped.
+            if (square < 0 || this.getMark(square) == Mark.BLANK) {
+                return 0;
+            }
+            // Scan reached another coin of given mark = every slot counted will be flipped.
+            if (this.getMark(square) == mark) {
+                return count;
+            }
+            // Scan found an opponent's coin = raise count and keep scanning.
+            count++;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package mechanics;
+
+public class BitBoard extends Board {
+
+    public static final int SIZE = 8;
+
+    // Bit (y * 8 + x), which is also the square, holds block (x, y).
+    // Masks drop coins that wrapped around to the other side.
+    private static final long NOT_FIRST_COLUMN = 0xfefefefefefefefeL;
+    private static final long NOT_LAST_COLUMN = 0x7f7f7f7f7f7f7f7fL;
+    // Shift amount and wrap mask of every direction, in Point.directions order.
+    private static final int[] SHIFTS = {-8, -7, 1, 9, 8, 7, -1, -9};
+    private static final long[] MASKS = {-1L, NOT_FIRST_COLUMN, NOT_FIRST_COLUMN, NOT_FIRST_COLUMN,
+            -1L, NOT_LAST_COLUMN, NOT_LAST_COLUMN, NOT_LAST_COLUMN};
+
+    private long black;
+    private long white;
+
+    /**
+     * Creates a new 8x8 board object backed by one bitboard per player.
+     */
+    public BitBoard() {
+        super(SIZE, SIZE, SIZE);
+        this.black = 0;
+        this.white = 0;
+        initialize();
+    }
+
+    /**
+     * Copy constructor.
+     * @param other BitBoard
+     */
+    public BitBoard(BitBoard other) {
+        super(other);
+        this.black = other.black;
+        this.white = other.white;
+    }
+
+    @Override
+    public Board copy() {
+        return new BitBoard(this);
+    }
+
+    @Override
+    public Board transform(int symmetry) {
+        BitBoard result = new BitBoard(this);
+        result.black = transform(symmetry, black);
+        result.white = transform(symmetry, white);
+        return result;
+    }
+
+    @Override
+    public int getCanonicalSymmetry() {
+        int best = Symmetry.IDENTITY;
+        long bestBlack = black;
+        long bestWhite = white;
+        for (int symmetry = 1; symmetry < 8; symmetry++) {
+            long imageBlack = transform(symmetry, black);
+            int compared = Long.compareUnsigned(imageBlack, bestBlack);
+            if (compared > 0) {
+                continue;
+            }
+            long imageWhite = transform(symmetry, white);
+            if (compared < 0 || Long.compareUnsigned(imageWhite, bestWhite) < 0) {
+                best = symmetry;
+                bestBlack = imageBlack;
+                bestWhite = imageWhite;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public Mark getMark(int square) {
+        long bit = 1L << square;
+        if ((black & bit) != 0) {
+            return Mark.BLACK;
+        }
+        if ((white & bit) != 0) {
+            return Mark.WHITE;
+        }
+        return Mark.BLANK;
+    }
+
+    @Override
+    public void setMark(int square, Mark mark) {
+        long bit = 1L << square;
+        black &= ~bit;
+        white &= ~bit;
+        if (mark == Mark.BLACK) {
+            black |= bit;
+        } else if (mark == Mark.WHITE) {
+            white |= bit;
+        }
+    }
+
+    @Override
+    public boolean isLegalMove(int square, Mark mark) {
+        long move = 1L << square;
+        if (((black | white) & move) != 0) {
+            return false;
+        }
+        long own = (mark == Mark.BLACK) ? black : white;
+        long opp = (mark == Mark.BLACK) ? white : black;
+        return flips(move, own, opp, null) != 0;
+    }
+
+    @Override
+    public int playMove(int square, Mark mark, int[] flips) {
+        long move = 1L << square;
+        if (mark == Mark.BLACK) {
+            long flipped = flips(move, black, white, flips);
+            black |= flipped | move;
+            white &= ~flipped;
+            return Long.bitCount(flipped);
+        }
+        long flipped = flips(move, white, black, flips);
+        white |= flipped | move;
+        black &= ~flipped;
+        return Long.bitCount(flipped);
+    }
+
+    @Override
+    public int getLegalMoves(Mark mark, int[] squares) {
+        long own = (mark == Mark.BLACK) ? black : white;
+        long opp = (mark == Mark.BLACK) ? white : black;
+        int count = 0;
+        for (long bits = legalMoves(own, opp); bits != 0; bits &= bits - 1) {
+            squares[count++] = Long.numberOfTrailingZeros(bits);
+        }
+        return count;
+    }
+
+    @Override
+    public int count(Mark mark) {
+        if (mark == Mark.BLACK) {
+            return Long.bitCount(black);
+        }
+        if (mark == Mark.WHITE) {
+            return Long.bitCount(white);
+        }
+        return Long.bitCount(~(black | white));
+    }
+
+    /**
+     * Returns given bitboard after applying given symmetry to it. Every symmetry is a mix of
+     * mirroring the bits of each row, reversing the order of the rows, and transposing.
+     * @param symmetry a Symmetry of an 8x8 board
+     * @param bits bitboard
+     * @return long
+     */
+    private static long transform(int symmetry, long bits) {
+        switch (symmetry) {
+            case 1:
+                return mirror(bits);
+            case 2:
+                return Long.reverseBytes(bits);
+            case 3:
+                return Long.reverse(bits);
+            case 4:
+                return transpose(bits);
+            case 5:
+                return mirror(transpose(bits));
+            case 6:
+                return Long.reverseBytes(transpose(bits));
+            case 7:
+                return Long.reverse(transpose(bits));
+            default:
+                return bits;
+        }
+    }
+
+    /**
+     * Returns given bitboard with every row mirrored, so block (x, y) moves to (7 - x, y).
+     * @param bits bitboard
+     * @return long
+     */
+    private static long mirror(long bits) {
+        bits = ((bits >>> 1) & 0x5555555555555555L) | ((bits & 0x5555555555555555L) << 1);
+        bits = ((bits >>> 2) & 0x3333333333333333L) | ((bits & 0x3333333333333333L) << 2);
+        return ((bits >>> 4) & 0x0f0f0f0f0f0f0f0fL) | ((bits & 0x0f0f0f0f0f0f0f0fL) << 4);
+    }
+
+    /**
+     * Returns given bitboard transposed, so block (x, y) moves to (y, x). Each step swaps the
+     * blocks of a power of two sized part of the board with their images across the diagonal.
+     * @param bits bitboard
+     * @return long
+     */
+    private static long transpose(long bits) {
+        long swap = 0x0f0f0f0f00000000L & (bits ^ (bits << 28));
+        bits ^= swap ^ (swap >>> 28);
+        swap = 0x3333000033330000L & (bits ^ (bits << 14));
+        bits ^= swap ^ (swap >>> 14);
+        swap = 0x5500550055005500L & (bits ^ (bits << 7));
+        return bits ^ swap ^ (swap >>> 7);
+    }
+
+    /**
+     * Shift every coin in given bitboard one block in given direction.
+     * @param bits bitboard
+     * @param dir direction index in Point.directions
+     * @return long
+     */
+    private static long shift(long bits, int dir) {
+        int amount = SHIFTS[dir];
+        return (amount > 0 ? bits << amount : bits >>> -amount) & MASKS[dir];
+    }
+
+    /**
+     * Returns a bitboard of every empty block where the owner of own would flip at least one coin.
+     * @param own bitboard of the player to move
+     * @param opp bitboard of the opponent
+     * @return long
+     */
+    private static long legalMoves(long own, long opp) {
+        long empty = ~(own | opp);
+        long moves = 0;
+        for (int dir = 0; dir < SHIFTS.length; dir++) {
+            // A run can hold at most 6 opponent coins on an 8x8 board.
+            long run = shift(own, dir) & opp;
+            run |= shift(run, dir) & opp;
+            run |= shift(run, dir) & opp;
+            run |= shift(run, dir) & opp;
+            run |= shift(run, dir) & opp;
+            run |= shift(run, dir) & opp;
+            moves |= shift(run, dir) & empty;
+        }
+        return moves;
+    }
+
+    /**
+     * Returns a bitboard of every coin flipped by placing the owner of own on given block.
+     * @param move single bit bitboard of the placed coin
+     * @param own bitboard of the player to move
+     * @param opp bitboard of the opponent
+     * @param counts if not null, filled with the number of coins flipped in each direction.
+     * @return long
+     */
+    private static long flips(long move, long own, long opp, int[] counts) {
+        long flipped = 0;
+        for (int dir = 0; dir < SHIFTS.length; dir++) {
+            long run = shift(move, dir) & opp;
+            run |= shift(run, dir) & opp;
+            run |= shift(run, dir) & opp;
+            run |= shift(run, dir) & opp;
+            run |= shift(run, dir) & opp;
+            run |= shift(run, dir) & opp;
+            if ((shift(run, dir) & own) == 0) {
+                run = 0;
+            }
+            flipped |= run;
+            if (counts != null) {
+                counts[dir] = Long.bitCount(run);
+            }
+        }
+        return flipped;
+    }
+}
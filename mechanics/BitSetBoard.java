@@ -0,0 +1,243 @@
+package mechanics;
+
+public class BitSetBoard extends Board {
+
+    // Shifts must stay below a word, so a row plus its padding can't exceed 63 bits.
+    public static final int MAX_WIDTH = 61;
+
+    private final int words;
+    private final long[] valid;
+    private final long[] black;
+    private final long[] white;
+    // Scratch words for move generation, kept to avoid allocating on every call.
+    private final long[] front;
+    private final long[] shifted;
+    private final long[] moves;
+
+    /**
+     * Creates a new board object of any size backed by one packed bitset per player.
+     * Bit (y * (width + 1) + x), which is also the square, holds block (x, y). The extra bit of
+     * every row is always empty, so coins shifted past the right or left border land on it and
+     * get masked away.
+     * @param width the board width.
+     * @param height the board height.
+     */
+    public BitSetBoard(int width, int height) {
+        super(width, height, width + 1);
+        if (width > MAX_WIDTH) {
+            throw new IllegalArgumentException("Board width can't exceed " + MAX_WIDTH);
+        }
+        this.words = (height * stride + 63) / 64;
+        this.valid = new long[words];
+        this.black = new long[words];
+        this.white = new long[words];
+        this.front = new long[words];
+        this.shifted = new long[words];
+        this.moves = new long[words];
+        for (int j = 0; j < height; j++) {
+            for (int i = 0; i < width; i++) {
+                int index = j * stride + i;
+                valid[index >>> 6] |= 1L << index;
+            }
+        }
+        initialize();
+    }
+
+    /**
+     * Copy constructor. The valid squares mask never changes, so it is shared.
+     * @param other BitSetBoard
+     */
+    public BitSetBoard(BitSetBoard other) {
+        super(other);
+        this.words = other.words;
+        this.valid = other.valid;
+        this.black = other.black.clone();
+        this.white = other.white.clone();
+        this.front = new long[words];
+        this.shifted = new long[words];
+        this.moves = new long[words];
+    }
+
+    @Override
+    public Board copy() {
+        return new BitSetBoard(this);
+    }
+
+    @Override
+    public Mark getMark(int square) {
+        long bit = 1L << square;
+        if ((black[square >>> 6] & bit) != 0) {
+            return Mark.BLACK;
+        }
+        if ((white[square >>> 6] & bit) != 0) {
+            return Mark.WHITE;
+        }
+        return Mark.BLANK;
+    }
+
+    @Override
+    public void setMark(int square, Mark mark) {
+        long bit = 1L << square;
+        black[square >>> 6] &= ~bit;
+        white[square >>> 6] &= ~bit;
+        if (mark == Mark.BLACK) {
+            black[square >>> 6] |= bit;
+        } else if (mark == Mark.WHITE) {
+            white[square >>> 6] |= bit;
+        }
+    }
+
+    @Override
+    public boolean isLegalMove(int square, Mark mark) {
+        if (test(black, square) || test(white, square)) {
+            return false;
+        }
+        long[] own = (mark == Mark.BLACK) ? black : white;
+        long[] opp = (mark == Mark.BLACK) ? white : black;
+        for (int offset : offsets) {
+            if (countRun(square, offset, own, opp) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int playMove(int square, Mark mark, int[] flips) {
+        long[] own = (mark == Mark.BLACK) ? black : white;
+        long[] opp = (mark == Mark.BLACK) ? white : black;
+        int flipped = 0;
+        for (int dir = 0; dir < offsets.length; dir++) {
+            int offset = offsets[dir];
+            int slots = countRun(square, offset, own, opp);
+            flips[dir] = slots;
+            int current = square;
+            for (int k = 0; k < slots; k++) {
+                current += offset;
+                own[current >>> 6] |= 1L << current;
+                opp[current >>> 6] &= ~(1L << current);
+            }
+            flipped += slots;
+        }
+        own[square >>> 6] |= 1L << square;
+        return flipped;
+    }
+
+    @Override
+    public int getLegalMoves(Mark mark, int[] squares) {
+        long[] legal = (mark == Mark.BLACK) ? legalMoves(black, white) : legalMoves(white, black);
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            for (long bits = legal[w]; bits != 0; bits &= bits - 1) {
+                squares[count++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int count(Mark mark) {
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            if (mark == Mark.BLACK) {
+                count += Long.bitCount(black[w]);
+            } else if (mark == Mark.WHITE) {
+                count += Long.bitCount(white[w]);
+            } else {
+                count += Long.bitCount(valid[w] & ~(black[w] | white[w]));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Check if given bit is set in given bitset. Bits outside the board are never set.
+     * @param bits bitset
+     * @param index bit index
+     * @return boolean
+     */
+    private boolean test(long[] bits, int index) {
+        return index >= 0 && index < words << 6 && (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Count the opponent's coins captured in given direction, starting from given bit.
+     * @param index starting bit
+     * @param offset bit offset of the direction
+     * @param own bitset of the player to move
+     * @param opp bitset of the opponent
+     * @return int
+     */
+    private int countRun(int index, int offset, long[] own, long[] opp) {
+        int count = 0;
+        index += offset;
+        while (test(opp, index)) {
+            count++;
+            index += offset;
+        }
+        return test(own, index) ? count : 0;
+    }
+
+    /**
+     * Fill the moves scratch bitset with every empty block where the owner of own would flip
+     * at least one coin. Every direction is scanned for all blocks at once, a word at a time.
+     * @param own bitset of the player to move
+     * @param opp bitset of the opponent
+     * @return the moves scratch bitset.
+     */
+    private long[] legalMoves(long[] own, long[] opp) {
+        for (int w = 0; w < words; w++) {
+            moves[w] = 0;
+        }
+        for (int offset : offsets) {
+            shift(own, offset, front);
+            boolean running = and(front, opp);
+            while (running) {
+                shift(front, offset, shifted);
+                running = false;
+                for (int w = 0; w < words; w++) {
+                    moves[w] |= shifted[w] & ~(own[w] | opp[w]);
+                    front[w] = shifted[w] & opp[w];
+                    running |= front[w] != 0;
+                }
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Intersect given bitset with given mask in place.
+     * @param bits bitset to change
+     * @param mask bitset
+     * @return true if any bit is left.
+     */
+    private boolean and(long[] bits, long[] mask) {
+        boolean any = false;
+        for (int w = 0; w < words; w++) {
+            bits[w] &= mask[w];
+            any |= bits[w] != 0;
+        }
+        return any;
+    }
+
+    /**
+     * Shift every bit of src by given offset into dst, dropping bits that left the board.
+     * @param src bitset
+     * @param offset bit offset, between -63 and 63
+     * @param dst bitset to write into, must not be src
+     */
+    private void shift(long[] src, int offset, long[] dst) {
+        if (offset > 0) {
+            for (int w = words - 1; w > 0; w--) {
+                dst[w] = ((src[w] << offset) | (src[w - 1] >>> (64 - offset))) & valid[w];
+            }
+            dst[0] = (src[0] << offset) & valid[0];
+        } else {
+            int amount = -offset;
+            for (int w = 0; w < words - 1; w++) {
+                dst[w] = ((src[w] >>> amount) | (src[w + 1] << (64 - amount))) & valid[w];
+            }
+            dst[words - 1] = (src[words - 1] >>> amount) & valid[words - 1];
+        }
+    }
+}
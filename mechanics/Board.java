@@ -1,38 +1,153 @@
 package mechanics;
 
-public class Board {
+import java.util.Arrays;
+import java.util.List;
+
+public abstract class Board {
 
     public enum Mark {BLANK, BLACK, WHITE}
 
-    private Mark[][] board;
-    private int boardWidth;
-    private int boardHeight;
+    // Block offsets of every direction, in Point.directions order.
+    private static final int[] DX = {0, 1, 1, 1, 0, -1, -1, -1};
+    private static final int[] DY = {-1, -1, 0, 1, 1, 1, 0, -1};
+
+    protected final int boardWidth;
+    protected final int boardHeight;
+    protected final int stride;
+    protected final int[] offsets;
+    // The square next to every square in every direction, or -1 past the border.
+    private final int[] neighbours;
 
     /**
      * Creates a new board object using given width and height parameters.
+     * Block (i, j) is addressed by the packed square (j * stride + i). A stride wider than the
+     * board leaves padding squares at the end of every row, which are never on the board.
+     * Subclasses must call initialize() once their storage is ready.
      * @param width the board width.
      * @param height the board height.
+     * @param stride the number of squares in a row, at least width.
      */
-    public Board(int width, int height) {
+    protected Board(int width, int height, int stride) {
         this.boardHeight = height;
         this.boardWidth = width;
-        this.board = new Mark[width][height];
-        initialize();
+        this.stride = stride;
+        this.offsets = new int[DX.length];
+        for (int dir = 0; dir < DX.length; dir++) {
+            this.offsets[dir] = DY[dir] * stride + DX[dir];
+        }
+        this.neighbours = new int[height * stride * DX.length];
+        Arrays.fill(this.neighbours, -1);
+        for (int j = 0; j < height; j++) {
+            for (int i = 0; i < width; i++) {
+                for (int dir = 0; dir < DX.length; dir++) {
+                    int x = i + DX[dir];
+                    int y = j + DY[dir];
+                    if (x >= 0 && x < width && y >= 0 && y < height) {
+                        this.neighbours[(j * stride + i) * DX.length + dir] = y * stride + x;
+                    }
+                }
+            }
+        }
     }
 
     /**
-     * Initializing the board for a new game.
+     * Copy constructor. The geometry tables never change, so they are shared.
+     * @param other Board
+     */
+    protected Board(Board other) {
+        this.boardHeight = other.boardHeight;
+        this.boardWidth = other.boardWidth;
+        this.stride = other.stride;
+        this.offsets = other.offsets;
+        this.neighbours = other.neighbours;
+    }
+
+    /**
+     * Creates the fastest board implementation available for given size.
+     * @param width the board width.
+     * @param height the board height.
+     * @return Board
+     */
+    public static Board create(int width, int height) {
+        if (width == BitBoard.SIZE && height == BitBoard.SIZE) {
+            return new BitBoard();
+        }
+        if (width <= BitSetBoard.MAX_WIDTH) {
+            return new BitSetBoard(width, height);
+        }
+        return new ArrayBoard(width, height);
+    }
+
+    /**
+     * Creates a board from rows of text separated by '/' or line breaks, top row first. In every
+     * row X or B is a black coin, O or W is a white coin, and - or . is an empty block.
+     * @param text String, like "--------/---OX---/..."
+     * @return Board
+     */
+    public static Board parse(String text) {
+        String[] rows = text.trim().split("\\s*[/\\n]\\s*");
+        int width = rows[0].length();
+        Board board = create(width, rows.length);
+        for (int j = 0; j < rows.length; j++) {
+            if (rows[j].length() != width) {
+                throw new IllegalArgumentException("Row " + j + " has " + rows[j].length()
+                        + " blocks instead of " + width);
+            }
+            for (int i = 0; i < width; i++) {
+                board.setMark(i, j, parseMark(rows[j].charAt(i)));
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Returns the mark of given block character.
+     * @param block char
+     * @return Mark
      */
-    private void initialize() {
-        for (int i = 0; i < boardHeight; i++) {
-            for (int j = 0; j < boardWidth; j++) {
-                this.board[i][j] = Mark.BLANK;
+    private static Mark parseMark(char block) {
+        switch (Character.toUpperCase(block)) {
+            case 'X':
+            case 'B':
+                return Mark.BLACK;
+            case 'O':
+            case 'W':
+                return Mark.WHITE;
+            case '-':
+            case '.':
+                return Mark.BLANK;
+            default:
+                throw new IllegalArgumentException("Unknown block: " + block);
+        }
+    }
+
+    /**
+     * Returns the board as rows of text separated by '/', in the form parse() reads.
+     * @return String
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int j = 0; j < boardHeight; j++) {
+            if (j > 0) {
+                text.append('/');
+            }
+            for (int i = 0; i < boardWidth; i++) {
+                Mark mark = getMark(square(i, j));
+                text.append(mark == Mark.BLACK ? 'X' : mark == Mark.WHITE ? 'O' : '-');
             }
         }
-        this.board[boardHeight / 2][boardWidth / 2] = Mark.WHITE;
-        this.board[boardHeight / 2 - 1][boardWidth / 2 - 1] = Mark.WHITE;
-        this.board[boardHeight / 2][boardWidth / 2 - 1] = Mark.BLACK;
-        this.board[boardHeight / 2 - 1][boardWidth / 2] = Mark.BLACK;
+        return text.toString();
+    }
+
+    /**
+     * Initializing the board for a new game.
+     */
+    protected void initialize() {
+        setMark(square(boardWidth / 2, boardHeight / 2), Mark.WHITE);
+        setMark(square(boardWidth / 2 - 1, boardHeight / 2 - 1), Mark.WHITE);
+        setMark(square(boardWidth / 2, boardHeight / 2 - 1), Mark.BLACK);
+        setMark(square(boardWidth / 2 - 1, boardHeight / 2), Mark.BLACK);
     }
 
     /**
@@ -51,13 +166,96 @@ public class Board {
         return boardWidth;
     }
 
+    /**
+     * Returns the number of squares in a row, padding included.
+     * @return int
+     */
+    public int getStride() {
+        return stride;
+    }
+
+    /**
+     * Returns one more than the highest square on the board.
+     * @return int
+     */
+    public int getSquareCount() {
+        return boardHeight * stride;
+    }
+
+    /**
+     * Returns the square of given block.
+     * @param i block's x parameter
+     * @param j block's y parameter
+     * @return int
+     */
+    public int square(int i, int j) {
+        return j * stride + i;
+    }
+
+    /**
+     * Returns the x parameter of given square.
+     * @param square int
+     * @return int
+     */
+    public int squareX(int square) {
+        return square % stride;
+    }
+
+    /**
+     * Returns the y parameter of given square.
+     * @param square int
+     * @return int
+     */
+    public int squareY(int square) {
+        return square / stride;
+    }
+
+    /**
+     * Returns the Point of given square.
+     * @param square int
+     * @return Point
+     */
+    public Point toPoint(int square) {
+        return new Point(squareX(square), squareY(square));
+    }
+
+    /**
+     * Returns the square offset of one step in given direction. The result is only on the board
+     * if the step doesn't cross a border; use step() when that isn't known.
+     * @param dir direction index in Point.directions
+     * @return int
+     */
+    public int getOffset(int dir) {
+        return offsets[dir];
+    }
+
+    /**
+     * Returns the square one step away from given square in given direction.
+     * @param square int
+     * @param dir direction index in Point.directions
+     * @return the next square, or -1 if the step leaves the board.
+     */
+    public int step(int square, int dir) {
+        return neighbours[square * DX.length + dir];
+    }
+
     /**
      * Return the mark on given point on the board.
      * @param p Point
      * @return Mark
      */
     public Mark getMark(Point p) {
-        return board[p.getX()][p.getY()];
+        return getMark(square(p.getX(), p.getY()));
+    }
+
+    /**
+     * Return the mark on given block on the board.
+     * @param i block's x parameter
+     * @param j block's y parameter
+     * @return Mark
+     */
+    public Mark getMark(int i, int j) {
+        return getMark(square(i, j));
     }
 
     /**
@@ -66,7 +264,190 @@ public class Board {
      * @param j block's y parameter
      * @param mark Mark
      */
-    public void setMark(int i, int j, Board.Mark mark) {
-        this.board[i][j] = mark;
+    public void setMark(int i, int j, Mark mark) {
+        setMark(square(i, j), mark);
+    }
+
+    /**
+     * Check if placing given mark on given block would flip at least one coin.
+     * @param i block's x parameter
+     * @param j block's y parameter
+     * @param mark Mark
+     * @return boolean
+     */
+    public boolean isLegalMove(int i, int j, Mark mark) {
+        return isLegalMove(square(i, j), mark);
+    }
+
+    /**
+     * Add every legal move of given mark to given list.
+     * @param mark Mark
+     * @param moves List
+     */
+    public void addLegalMoves(Mark mark, List<Point> moves) {
+        int[] squares = new int[boardWidth * boardHeight];
+        int count = getLegalMoves(mark, squares);
+        for (int k = 0; k < count; k++) {
+            moves.add(toPoint(squares[k]));
+        }
+    }
+
+    /**
+     * Returns a new board holding this board's coins after applying given symmetry to them.
+     * @param symmetry a Symmetry of the board's size
+     * @return Board
+     */
+    public Board transform(int symmetry) {
+        if (symmetry >= Symmetry.count(boardWidth, boardHeight)) {
+            throw new IllegalArgumentException("No symmetry " + symmetry + " on a " + boardWidth + "x" + boardHeight + " board");
+        }
+        Board result = create(boardWidth, boardHeight);
+        int inverse = Symmetry.inverse(symmetry);
+        for (int block = 0; block < boardWidth * boardHeight; block++) {
+            int source = Symmetry.transform(inverse, block, boardWidth, boardHeight);
+            result.setMark(result.square(block % boardWidth, block / boardWidth), getBlockMark(source));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the symmetry turning this board into its canonical form, the smallest of its
+     * symmetric images. Images are ordered by their black coins as a binary number with block
+     * (x + y * width) at bit (x + y * width), then by their white coins the same way, so boards
+     * that are rotations or reflections of each other share one canonical form.
+     * @return a Symmetry of the board's size
+     */
+    public int getCanonicalSymmetry() {
+        int best = Symmetry.IDENTITY;
+        for (int symmetry = 1; symmetry < Symmetry.count(boardWidth, boardHeight); symmetry++) {
+            if (compareImages(symmetry, best) < 0) {
+                best = symmetry;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the canonical form of this board.
+     * @return a new Board, equal to transform(getCanonicalSymmetry())
+     */
+    public Board canonical() {
+        return transform(getCanonicalSymmetry());
+    }
+
+    /**
+     * Compare two symmetric images of this board in canonical order, without building them.
+     * @param first a Symmetry of the board's size
+     * @param second a Symmetry of the board's size
+     * @return negative, zero or positive as the first image is smaller than, equal to, or
+     *         bigger than the second.
+     */
+    private int compareImages(int first, int second) {
+        int firstInverse = Symmetry.inverse(first);
+        int secondInverse = Symmetry.inverse(second);
+        for (Mark mark : new Mark[] {Mark.BLACK, Mark.WHITE}) {
+            for (int block = boardWidth * boardHeight - 1; block >= 0; block--) {
+                boolean inFirst = getBlockMark(Symmetry.transform(firstInverse, block, boardWidth, boardHeight)) == mark;
+                boolean inSecond = getBlockMark(Symmetry.transform(secondInverse, block, boardWidth, boardHeight)) == mark;
+                if (inFirst != inSecond) {
+                    return inFirst ? 1 : -1;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the mark on given block.
+     * @param block block index (x + y * width)
+     * @return Mark
+     */
+    private Mark getBlockMark(int block) {
+        return getMark(square(block % boardWidth, block / boardWidth));
+    }
+
+    /**
+     * Returns a new board with the same size and coins as this board.
+     * @return Board
+     */
+    public abstract Board copy();
+
+    /**
+     * Return the mark on given square.
+     * @param square int
+     * @return Mark
+     */
+    public abstract Mark getMark(int square);
+
+    /**
+     * Set the mark on given square to given mark.
+     * @param square int
+     * @param mark Mark
+     */
+    public abstract void setMark(int square, Mark mark);
+
+    /**
+     * Check if placing given mark on given square would flip at least one coin.
+     * @param square int
+     * @param mark Mark
+     * @return boolean
+     */
+    public abstract boolean isLegalMove(int square, Mark mark);
+
+    /**
+     * Place given mark on given square and flip every coin it captures.
+     * @param square int
+     * @param mark Mark
+     * @param flips filled with the number of coins flipped in each direction, in Point.directions order.
+     * @return the number of flipped coins.
+     */
+    public abstract int playMove(int square, Mark mark, int[] flips);
+
+    /**
+     * Take back a move of given mark on given square, which flipped the given runs of coins.
+     * @param square int
+     * @param mark Mark
+     * @param flips the number of coins flipped in each direction, in Point.directions order.
+     */
+    public void undoMove(int square, Mark mark, int[] flips) {
+        Mark opponent = opposite(mark);
+        for (int dir = 0; dir < flips.length; dir++) {
+            int current = square;
+            for (int k = 0; k < flips[dir]; k++) {
+                current += offsets[dir];
+                setMark(current, opponent);
+            }
+        }
+        setMark(square, Mark.BLANK);
+    }
+
+    /**
+     * Write the square of every legal move of given mark into given array, in ascending order.
+     * @param mark Mark
+     * @param squares array with room for every block of the board
+     * @return the number of legal moves.
+     */
+    public abstract int getLegalMoves(Mark mark, int[] squares);
+
+    /**
+     * Returns the number of coins with given mark on the board.
+     * @param mark Mark
+     * @return int
+     */
+    public abstract int count(Mark mark);
+
+    /**
+     * Returns the opposite mark of given coin mark.
+     * @param mark Mark
+     * @return Mark
+     */
+    public static Mark opposite(Mark mark) {
+        if (mark == Mark.BLACK) {
+            return Mark.WHITE;
+        }
+        if (mark == Mark.WHITE) {
+            return Mark.BLACK;
+        }
+        return Mark.BLANK;
     }
 }
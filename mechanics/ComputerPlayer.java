@@ -0,0 +1,11 @@
+package mechanics;
+
+public interface ComputerPlayer {
+
+    /**
+     * Choose a move for the current player of given game. The game itself is left unchanged.
+     * @param game a started Game
+     * @return the chosen move, or null if the current player has no available move.
+     */
+    Point chooseMove(Game game);
+}
@@ -33,4 +33,20 @@ public class Counter {
     public void raiseCount() {
         this.count++;
     }
+
+    /**
+     * Raise count by given amount.
+     * @param amount int
+     */
+    public void raiseCount(int amount) {
+        this.count += amount;
+    }
+
+    /**
+     * Lower count by given amount.
+     * @param amount int
+     */
+    public void lowerCount(int amount) {
+        this.count -= amount;
+    }
 }
@@ -0,0 +1,541 @@
+package mechanics;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class EndgameSolver {
+
+    // With this many empties or fewer, moves are tried straight from the list of empty squares,
+    // without generating or sorting them first.
+    private static final int LAST_EMPTIES = 5;
+    // With more empties than this, moves are searched in order of the replies they leave the
+    // opponent, fewest first.
+    private static final int FASTEST_FIRST_EMPTIES = 7;
+    // With this many empties or more, results are kept in the transposition table.
+    private static final int TABLE_EMPTIES = 10;
+    private static final int DEFAULT_TABLE_SIZE = 16;
+    // The clock is read once every this many nodes (plus one).
+    private static final int CHECK_INTERVAL = 1023;
+
+    private Board board;
+    private int width;
+    private int height;
+    // The empty squares form a doubly linked list through next and previous, starting and ending
+    // at the sentinel, so a square is taken out and put back in place in constant time.
+    private int[] next;
+    private int[] previous;
+    private int sentinel;
+    // Every square belongs to one of the board's quarters, and bit r of parity is set while
+    // quarter r has an odd number of empties.
+    private int[] region;
+    private int parity;
+    private int[][] moveBuffers;
+    private int[][] keyBuffers;
+    private int[][] flipBuffers;
+    private int[] replies;
+    private long[] zobristKeys;
+    private final TranspositionTable table;
+
+    private int rootEmpties;
+    private int bestMove;
+    private long nodes;
+    private long deadline;
+    private AtomicBoolean cancelled;
+    private boolean stopped;
+
+    private long[] solves;
+    private long[] solveNanos;
+    private long[] solveNodes;
+    private long[] slowestNanos;
+
+    /**
+     * Creates a new solver with a table of the default size.
+     */
+    public EndgameSolver() {
+        this(new TranspositionTable(DEFAULT_TABLE_SIZE));
+    }
+
+    /**
+     * Creates a new solver keeping solved positions in given table. Solved positions stay solved,
+     * so the table isn't cleared between solves of the same board size. The solver keeps buffers
+     * of the last board size it saw, so it isn't thread safe.
+     * @param table TranspositionTable, used by this solver only
+     */
+    public EndgameSolver(TranspositionTable table) {
+        this.table = table;
+        this.width = 0;
+        this.height = 0;
+        this.deadline = Long.MAX_VALUE;
+        this.cancelled = new AtomicBoolean();
+        this.bestMove = -1;
+        this.solves = new long[0];
+        this.solveNanos = new long[0];
+        this.solveNodes = new long[0];
+        this.slowestNanos = new long[0];
+    }
+
+    /**
+     * Set the time after which solving gives up.
+     * @param deadline a System.nanoTime() value, or Long.MAX_VALUE to never give up.
+     */
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Set the token that makes solving give up, as if its deadline passed, once another thread
+     * sets it. The solver only reads the token, so a cancel can't be lost by a solve starting.
+     * @param cancelled AtomicBoolean, set to cancel
+     */
+    public void setCancelled(AtomicBoolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Returns the exact final disc differential of given game for its current player, if both
+     * players play perfectly from here on.
+     * @param game a started Game
+     * @return int, meaningless if isStopped().
+     */
+    public int solve(Game game) {
+        int area = game.getWidth() * game.getHeight();
+        return solve(game, -area - 1, area + 1);
+    }
+
+    /**
+     * Returns the final disc differential of given game for its current player, if it lies
+     * strictly between alpha and beta. Otherwise the result is a bound on the side it falls: at
+     * most alpha, or at least beta.
+     * The game's board is searched in place, and is back as it was when this returns.
+     * @param game a started Game
+     * @param alpha lower bound
+     * @param beta upper bound
+     * @return int, meaningless if isStopped().
+     */
+    public int solve(Game game, int alpha, int beta) {
+        long start = System.nanoTime();
+        prepare(game.getBoard());
+        Board.Mark own = game.getPlayerMark(game.getCurrentTurn());
+        int diff = board.count(own) - board.count(Board.opposite(own));
+        this.nodes = 0;
+        this.stopped = false;
+        this.bestMove = -1;
+        if (game.isGameOver()) {
+            return diff;
+        }
+        int score = search(own, alpha, beta, diff, rootEmpties, hash(own));
+        if (!stopped) {
+            long nanos = System.nanoTime() - start;
+            solves[rootEmpties]++;
+            solveNanos[rootEmpties] += nanos;
+            solveNodes[rootEmpties] += nodes;
+            slowestNanos[rootEmpties] = Math.max(slowestNanos[rootEmpties], nanos);
+        }
+        return score;
+    }
+
+    /**
+     * Returns true if the last solve ran out of time or was cancelled before it finished.
+     * @return boolean
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Returns the square of the best move found by the last solve, or -1 if it had no move.
+     * @return int
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * Returns the number of positions visited by the last solve.
+     * @return long
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the number of finished solves of positions with given number of empties.
+     * @param empties int
+     * @return long
+     */
+    public long getSolveCount(int empties) {
+        return (empties < solves.length) ? solves[empties] : 0;
+    }
+
+    /**
+     * Returns the total time of the finished solves of positions with given number of empties.
+     * @param empties int
+     * @return nanoseconds
+     */
+    public long getSolveNanos(int empties) {
+        return (empties < solveNanos.length) ? solveNanos[empties] : 0;
+    }
+
+    /**
+     * Print the count, average and slowest time and speed of the finished solves, for every
+     * number of empties solved so far.
+     * @param out PrintStream
+     */
+    public void printStatistics(PrintStream out) {
+        out.println("empties  solves    average ms    slowest ms     nodes/sec");
+        for (int empties = 0; empties < solves.length; empties++) {
+            if (solves[empties] == 0) {
+                continue;
+            }
+            double seconds = solveNanos[empties] / 1e9;
+            out.printf("%7d %7d %13.3f %13.3f %13.0f%n", empties, solves[empties],
+                    solveNanos[empties] / 1e6 / solves[empties], slowestNanos[empties] / 1e6,
+                    (seconds > 0) ? solveNodes[empties] / seconds : 0);
+        }
+    }
+
+    /**
+     * Alpha-beta search to the end of the game.
+     * @param own the mark of the player to move
+     * @param alpha lower bound
+     * @param beta upper bound
+     * @param diff the disc differential for the player to move
+     * @param empties the number of empty squares
+     * @param hash the Zobrist hash of the board and the player to move, kept up to date only
+     *             with at least TABLE_EMPTIES empties
+     * @return the final disc differential for the player to move.
+     */
+    private int search(Board.Mark own, int alpha, int beta, int diff, int empties, long hash) {
+        nodes++;
+        if ((nodes & CHECK_INTERVAL) == 0 && (cancelled.get() || System.nanoTime() > deadline)) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (empties <= LAST_EMPTIES && empties < rootEmpties) {
+            return searchLast(own, alpha, beta, diff, empties, false);
+        }
+        Board.Mark opponent = Board.opposite(own);
+        int[] moves = moveBuffers[empties];
+        int count = board.getLegalMoves(own, moves);
+        if (count == 0) {
+            if (board.getLegalMoves(opponent, replies) == 0) {
+                return diff;
+            }
+            return -search(opponent, -beta, -alpha, -diff, empties, hash ^ Zobrist.SIDE_KEY);
+        }
+        boolean stored = empties >= TABLE_EMPTIES;
+        int hashMove = -1;
+        if (stored) {
+            // Every entry was searched to the end of the game, so its depth always suffices.
+            long entry = table.probe(hash);
+            if (entry != 0) {
+                hashMove = TranspositionTable.getMove(entry);
+                int score = TranspositionTable.getScore(entry);
+                int bound = TranspositionTable.getBound(entry);
+                if (empties < rootEmpties) {
+                    if (bound == TranspositionTable.EXACT) {
+                        alpha = score;
+                        beta = score;
+                    } else if (bound == TranspositionTable.LOWER) {
+                        alpha = Math.max(alpha, score);
+                    } else {
+                        beta = Math.min(beta, score);
+                    }
+                    if (alpha >= beta) {
+                        return score;
+                    }
+                } else if (bound == TranspositionTable.EXACT && score > alpha && score < beta) {
+                    // The root is searched anyway, for its best move. A window just around the
+                    // exact score finds it, and stores the score back as exact.
+                    alpha = score - 1;
+                    beta = score + 1;
+                }
+            }
+        }
+        orderMoves(own, moves, count, empties, hashMove);
+        int[] flips = flipBuffers[empties];
+        int originalAlpha = alpha;
+        int best = -Integer.MAX_VALUE;
+        int bestSquare = -1;
+        for (int k = 0; k < count; k++) {
+            int square = moves[k];
+            int flipped = board.playMove(square, own, flips);
+            remove(square);
+            int childDiff = -(diff + 2 * flipped + 1);
+            long childHash = (empties > TABLE_EMPTIES) ? childHash(hash, square, own, flips) : 0;
+            int score;
+            if (k == 0) {
+                score = -search(opponent, -beta, -alpha, childDiff, empties - 1, childHash);
+            } else {
+                // Prove the move no better than the best so far with a null window first, and
+                // only search it fully when that fails.
+                score = -search(opponent, -alpha - 1, -alpha, childDiff, empties - 1, childHash);
+                if (score > alpha && score < beta && !stopped) {
+                    score = -search(opponent, -beta, -score, childDiff, empties - 1, childHash);
+                }
+            }
+            restore(square);
+            board.undoMove(square, own, flips);
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestSquare = square;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (empties == rootEmpties) {
+            bestMove = bestSquare;
+        }
+        if (stored) {
+            int bound = TranspositionTable.EXACT;
+            if (best <= originalAlpha) {
+                bound = TranspositionTable.UPPER;
+            } else if (best >= beta) {
+                bound = TranspositionTable.LOWER;
+            }
+            table.store(hash, empties, best, bound, bestSquare);
+        }
+        return best;
+    }
+
+    /**
+     * Returns the hash of the board after given move, with the opponent to move.
+     * @param hash the hash before the move
+     * @param square the move's square
+     * @param own the mark of the player who moved
+     * @param flips the number of coins the move flipped in each direction
+     * @return long
+     */
+    private long childHash(long hash, int square, Board.Mark own, int[] flips) {
+        int color = (own == Board.Mark.WHITE) ? 1 : 0;
+        hash ^= zobristKeys[square * 2 + color] ^ Zobrist.SIDE_KEY;
+        for (int dir = 0; dir < flips.length; dir++) {
+            int current = square;
+            for (int k = 0; k < flips[dir]; k++) {
+                current += board.getOffset(dir);
+                hash ^= zobristKeys[current * 2] ^ zobristKeys[current * 2 + 1];
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the hash of the board with given mark to move.
+     * @param own the mark of the player to move
+     * @return long
+     */
+    private long hash(Board.Mark own) {
+        return Zobrist.hash(board, own);
+    }
+
+    /**
+     * Alpha-beta search of the last few empties. Moves are tried on every empty square, in the
+     * quarters with an odd number of empties first, since a move there tends to leave the mover
+     * the last move of the quarter. Nothing is allocated, and no move list is built.
+     * @param own the mark of the player to move
+     * @param alpha lower bound
+     * @param beta upper bound
+     * @param diff the disc differential for the player to move
+     * @param empties the number of empty squares
+     * @param passed true if the opponent just passed
+     * @return the final disc differential for the player to move.
+     */
+    private int searchLast(Board.Mark own, int alpha, int beta, int diff, int empties, boolean passed) {
+        nodes++;
+        if (empties == 0) {
+            return diff;
+        }
+        Board.Mark opponent = Board.opposite(own);
+        int[] flips = flipBuffers[empties];
+        int best = -Integer.MAX_VALUE;
+        for (int odd = 1; odd >= 0; odd--) {
+            for (int square = next[sentinel]; square != sentinel; square = next[square]) {
+                if (((parity >>> region[square]) & 1) != odd) {
+                    continue;
+                }
+                int flipped = board.playMove(square, own, flips);
+                if (flipped == 0) {
+                    board.setMark(square, Board.Mark.BLANK);
+                    continue;
+                }
+                remove(square);
+                int score = -searchLast(opponent, -beta, -alpha, -(diff + 2 * flipped + 1), empties - 1, false);
+                restore(square);
+                board.undoMove(square, own, flips);
+                if (score > best) {
+                    best = score;
+                    if (score > alpha) {
+                        alpha = score;
+                        if (alpha >= beta) {
+                            return best;
+                        }
+                    }
+                }
+            }
+        }
+        if (best == -Integer.MAX_VALUE) {
+            // Neither player can move, so the game is over.
+            if (passed) {
+                return diff;
+            }
+            return -searchLast(opponent, -beta, -alpha, -diff, empties, true);
+        }
+        return best;
+    }
+
+    /**
+     * Sort given moves so the likeliest cutoffs come first. With many empties, moves leaving the
+     * opponent the fewest replies come first; otherwise, and between moves leaving as many
+     * replies, moves in quarters with an odd number of empties come first. The table's move
+     * comes before all of them.
+     * @param own the mark of the player to move
+     * @param moves squares
+     * @param count number of moves
+     * @param empties the number of empty squares
+     * @param hashMove square of the table's move, or -1
+     */
+    private void orderMoves(Board.Mark own, int[] moves, int count, int empties, int hashMove) {
+        int[] keys = keyBuffers[empties];
+        int[] flips = flipBuffers[empties];
+        Board.Mark opponent = Board.opposite(own);
+        for (int k = 0; k < count; k++) {
+            int square = moves[k];
+            int key = ((parity >>> region[square]) & 1) ^ 1;
+            if (empties > FASTEST_FIRST_EMPTIES) {
+                board.playMove(square, own, flips);
+                key += 2 * board.getLegalMoves(opponent, replies);
+                board.undoMove(square, own, flips);
+            }
+            keys[k] = (square == hashMove) ? -1 : key;
+        }
+        for (int k = 1; k < count; k++) {
+            int move = moves[k];
+            int key = keys[k];
+            int l = k - 1;
+            while (l >= 0 && keys[l] > key) {
+                moves[l + 1] = moves[l];
+                keys[l + 1] = keys[l];
+                l--;
+            }
+            moves[l + 1] = move;
+            keys[l + 1] = key;
+        }
+    }
+
+    /**
+     * Take given square out of the list of empties.
+     * @param square an empty square
+     */
+    private void remove(int square) {
+        next[previous[square]] = next[square];
+        previous[next[square]] = previous[square];
+        parity ^= 1 << region[square];
+    }
+
+    /**
+     * Put the square last taken out back into the list of empties.
+     * @param square int
+     */
+    private void restore(int square) {
+        next[previous[square]] = square;
+        previous[next[square]] = square;
+        parity ^= 1 << region[square];
+    }
+
+    /**
+     * Make sure the buffers fit given board, and list its empty squares: corners first, the
+     * squares diagonally next to them last, since they're the best and worst moves most often.
+     * @param board Board
+     */
+    private void prepare(Board board) {
+        this.board = board;
+        int area = board.getBoardWidth() * board.getBoardHeight();
+        if (board.getBoardWidth() != width || board.getBoardHeight() != height) {
+            this.width = board.getBoardWidth();
+            this.height = board.getBoardHeight();
+            this.sentinel = board.getSquareCount();
+            this.next = new int[sentinel + 1];
+            this.previous = new int[sentinel + 1];
+            this.region = new int[sentinel];
+            this.moveBuffers = new int[area + 1][area];
+            this.keyBuffers = new int[area + 1][area];
+            this.flipBuffers = new int[area + 1][Point.directions.size()];
+            this.replies = new int[area];
+            this.zobristKeys = Zobrist.keys(board);
+            this.table.clear();
+            for (int j = 0; j < height; j++) {
+                for (int i = 0; i < width; i++) {
+                    region[board.square(i, j)] = ((i < width / 2) ? 0 : 1) + ((j < height / 2) ? 0 : 2);
+                }
+            }
+        }
+        if (solves.length <= area) {
+            this.solves = Arrays.copyOf(solves, area + 1);
+            this.solveNanos = Arrays.copyOf(solveNanos, area + 1);
+            this.solveNodes = Arrays.copyOf(solveNodes, area + 1);
+            this.slowestNanos = Arrays.copyOf(slowestNanos, area + 1);
+        }
+        next[sentinel] = sentinel;
+        previous[sentinel] = sentinel;
+        this.parity = 0;
+        this.rootEmpties = 0;
+        for (int rank = 0; rank < 3; rank++) {
+            for (int j = 0; j < height; j++) {
+                for (int i = 0; i < width; i++) {
+                    int dx = Math.min(i, width - 1 - i);
+                    int dy = Math.min(j, height - 1 - j);
+                    int squareRank = (dx == 0 && dy == 0) ? 0 : (dx == 1 && dy == 1) ? 2 : 1;
+                    int square = board.square(i, j);
+                    if (squareRank != rank || board.getMark(square) != Board.Mark.BLANK) {
+                        continue;
+                    }
+                    previous[square] = previous[sentinel];
+                    next[square] = sentinel;
+                    next[previous[sentinel]] = square;
+                    previous[sentinel] = square;
+                    parity ^= 1 << region[square];
+                    rootEmpties++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Solve the positions along random games on an 8x8 board, from given number of empties down,
+     * and print how long the solves took for every number of empties.
+     * Arguments: [empties] [games] [seed]
+     * @param args String[]
+     */
+    public static void main(String[] args) {
+        int maxEmpties = (args.length > 0) ? Integer.parseInt(args[0]) : 16;
+        int games = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+        Random random = new Random((args.length > 2) ? Long.parseLong(args[2]) : 1);
+        EndgameSolver solver = new EndgameSolver();
+        Game game = new Game();
+        int[] moves = new int[BitBoard.SIZE * BitBoard.SIZE];
+        for (int played = 0; played < games; played++) {
+            game.initialize(BitBoard.SIZE, BitBoard.SIZE, Game.Player.PLAYER1);
+            game.start();
+            while (!game.isGameOver()) {
+                int empties = game.getBoard().count(Board.Mark.BLANK);
+                if (empties <= maxEmpties) {
+                    solver.solve(game);
+                }
+                int count = game.getLegalMoves(moves);
+                game.makeMove(moves[random.nextInt(count)]);
+            }
+        }
+        solver.printStatistics(System.out);
+    }
+}
@@ -0,0 +1,21 @@
+package mechanics;
+
+public interface Evaluator {
+
+    /**
+     * Returns a heuristic score of given game for its current player. Higher is better, and the
+     * score must stay strictly between -AlphaBetaPlayer.WIN_SCORE and AlphaBetaPlayer.WIN_SCORE.
+     * @param game a started Game
+     * @return int
+     */
+    int evaluate(Game game);
+
+    /**
+     * Returns an evaluator scoring like this one, for use by another thread. Evaluators keeping no
+     * state between calls may return themselves.
+     * @return Evaluator
+     */
+    default Evaluator copy() {
+        return this;
+    }
+}
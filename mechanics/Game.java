@@ -1,7 +1,8 @@
 package mechanics;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.BitSet;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
@@ -9,25 +10,113 @@ public class Game {
 
     public enum Player { PLAYER1, PLAYER2 }
 
+    /**
+     * Everything needed to take back one move: the placed square, the runs of coins it flipped,
+     * and the turn state from before it was played.
+     */
+    private static class UndoRecord {
+        private int square;
+        private int flipped;
+        private int[] flips;
+        private Player previousTurn;
+        private int turnsWithoutMoves;
+        private long hash;
+
+        /**
+         * Creates a new empty record.
+         */
+        private UndoRecord() {
+            this.flips = new int[Point.directions.size()];
+        }
+
+        /**
+         * Copy given record into this one.
+         * @param other UndoRecord
+         */
+        private void copy(UndoRecord other) {
+            this.square = other.square;
+            this.flipped = other.flipped;
+            System.arraycopy(other.flips, 0, this.flips, 0, this.flips.length);
+            this.previousTurn = other.previousTurn;
+            this.turnsWithoutMoves = other.turnsWithoutMoves;
+            this.hash = other.hash;
+        }
+    }
+
+    // Boards scanned block by block regenerate their moves faster than it takes to track them up
+    // to about this many blocks.
+    private static final int TRACKING_THRESHOLD = 64;
+
     private Board board;
+    private MoveTracker moveTracker;
+    private PatternIndex patternIndex;
+    private UndoRecord[] history;
+    private int historySize;
+    private int[] moveSquares;
+    private int moveCount;
+    private BitSet legalMoves;
+    private Player startingPlayer;
     private Player currentTurn;
     private List<Point> availableMoves;
+    private boolean availableMovesStale;
     private Map<Player, Board.Mark> playerMarkMap;
     private Map<Player, Counter> scoreMap;
     private boolean isGameOn;
     private int turnsWithoutMoves;
+    private boolean scoreChecking;
+    private long[] zobristKeys;
+    private long hash;
 
     /**
      * Creates a new game object.
      */
     public Game() {
         this.isGameOn = false;
+        this.startingPlayer = Player.PLAYER1;
         this.currentTurn = Player.PLAYER1;
-        this.playerMarkMap = new HashMap<>();
-        this.scoreMap = new HashMap<>();
+        this.playerMarkMap = new EnumMap<>(Player.class);
+        this.scoreMap = new EnumMap<>(Player.class);
         this.scoreMap.put(Player.PLAYER1, new Counter(0));
         this.scoreMap.put(Player.PLAYER2, new Counter(0));
         this.availableMoves = new ArrayList<>();
+        this.availableMovesStale = false;
+        this.legalMoves = new BitSet();
+        this.history = new UndoRecord[0];
+        this.historySize = 0;
+        this.scoreChecking = Boolean.getBoolean("mechanics.checkScore");
+    }
+
+    /**
+     * Copy constructor. The copy shares no state with the original, so either can be played on.
+     * @param other an initialized Game
+     */
+    public Game(Game other) {
+        this.isGameOn = other.isGameOn;
+        this.startingPlayer = other.startingPlayer;
+        this.currentTurn = other.currentTurn;
+        this.turnsWithoutMoves = other.turnsWithoutMoves;
+        this.playerMarkMap = new EnumMap<>(other.playerMarkMap);
+        this.scoreMap = new EnumMap<>(Player.class);
+        for (Player player : Player.values()) {
+            this.scoreMap.put(player, new Counter(other.getScore(player)));
+        }
+        this.board = other.board.copy();
+        this.moveTracker = (other.moveTracker == null) ? null : new MoveTracker(other.moveTracker, this.board);
+        this.patternIndex = (other.patternIndex == null) ? null : new PatternIndex(other.patternIndex);
+        this.moveSquares = other.moveSquares.clone();
+        this.moveCount = other.moveCount;
+        this.legalMoves = (BitSet) other.legalMoves.clone();
+        this.availableMoves = new ArrayList<>();
+        this.availableMovesStale = true;
+        this.history = new UndoRecord[other.history.length];
+        for (int k = 0; k < history.length; k++) {
+            this.history[k] = new UndoRecord();
+            this.history[k].copy(other.history[k]);
+        }
+        this.historySize = other.historySize;
+        this.scoreChecking = other.scoreChecking;
+        this.zobristKeys = other.zobristKeys;
+        this.hash = other.hash;
     }
 
     /**
@@ -35,9 +124,49 @@ public class Game {
      * @param gameSettings setting object.
      */
     public void initialize(GameSettings gameSettings) {
-        this.board = new Board(gameSettings.getBoardWidth(), gameSettings.getBoardHeight());
-        this.currentTurn = gameSettings.getStartingPlayer();
+        initialize(gameSettings.getBoardWidth(), gameSettings.getBoardHeight(), gameSettings.getStartingPlayer());
+    }
+
+    /**
+     * Initializing game with given board size and starting player, without a settings file.
+     * @param width the board's width
+     * @param height the board's height
+     * @param startingPlayer Player
+     */
+    public void initialize(int width, int height, Player startingPlayer) {
+        initialize(Board.create(width, height), startingPlayer);
+    }
+
+    /**
+     * Initializing game from given position, with given player to move first.
+     * @param board the position, owned by the game from now on
+     * @param startingPlayer Player
+     */
+    public void initialize(Board board, Player startingPlayer) {
+        int width = board.getBoardWidth();
+        int height = board.getBoardHeight();
+        this.board = board;
+        this.moveSquares = new int[width * height];
+        this.moveCount = 0;
+        this.legalMoves.clear();
+        // A game can't last longer than the number of blocks, so the undo stack never grows.
+        this.history = new UndoRecord[width * height];
+        for (int k = 0; k < history.length; k++) {
+            this.history[k] = new UndoRecord();
+        }
+        this.historySize = 0;
+        this.moveTracker = null;
+        // Bitset boards regenerate every move faster than it takes to track them, so only big
+        // boards scanned block by block, the ones too wide for a bitset, use a tracker.
+        if (board instanceof ArrayBoard && width * height > TRACKING_THRESHOLD) {
+            this.moveTracker = new MoveTracker(this.board);
+        }
+        this.patternIndex = null;
+        this.startingPlayer = startingPlayer;
+        this.currentTurn = startingPlayer;
         initializeTurnMap();
+        this.zobristKeys = Zobrist.keys(this.board);
+        this.hash = Zobrist.hash(this.board, getPlayerMark(this.currentTurn));
     }
 
     /**
@@ -56,7 +185,13 @@ public class Game {
     public void endGame() {
         this.isGameOn = false;
         this.board = null;
+        this.moveTracker = null;
+        this.patternIndex = null;
+        this.historySize = 0;
+        this.moveCount = 0;
+        this.legalMoves.clear();
         this.availableMoves.clear();
+        this.availableMovesStale = false;
         this.playerMarkMap.clear();
         this.currentTurn = null;
     }
@@ -78,16 +213,126 @@ public class Game {
         if (!isGameOn) {
             return false;
         }
-        if (this.availableMoves.contains(move)) {
-            this.checkMove(move, true);
+        if (this.isLegal(move.getX(), move.getY())) {
+            return makeMove(board.square(move.getX(), move.getY()));
+        }
+        return false;
+    }
+
+    /**
+     * Play the move on given square, and remember how to take it back with unmakeMove.
+     * @param square the move's square on the board
+     * @return true if move was played, false if game isn't on, or move wasn't available.
+     */
+    public boolean makeMove(int square) {
+        if (!isGameOn) {
+            return false;
+        }
+        if (this.legalMoves.get(square)) {
+            UndoRecord record = this.history[historySize++];
+            record.square = square;
+            record.previousTurn = this.currentTurn;
+            record.turnsWithoutMoves = this.turnsWithoutMoves;
+            record.hash = this.hash;
+            record.flipped = flip(square, record.flips);
             this.switchTurn();
             updateAvailableMoves();
-            updateScore();
+            if (this.scoreChecking) {
+                verifyScore();
+            }
             return true;
         }
         return false;
     }
 
+    /**
+     * Take back the last move played, including any passes that followed it.
+     * @return true if a move was taken back, false if game isn't on, or no move was played yet.
+     */
+    public boolean unmakeMove() {
+        if (!isGameOn || this.historySize == 0) {
+            return false;
+        }
+        UndoRecord record = this.history[--historySize];
+        this.currentTurn = record.previousTurn;
+        unflip(record.square, record.flips, record.flipped);
+        findAvailableMoves();
+        this.turnsWithoutMoves = record.turnsWithoutMoves;
+        this.hash = record.hash;
+        if (this.scoreChecking) {
+            verifyScore();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of moves that can be taken back.
+     * @return int
+     */
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    /**
+     * Returns the Zobrist hash of the position: the coins on the board and the player to move.
+     * Equal positions have equal hashes, whatever moves led to them.
+     * @return long
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Returns the indices of the board's patterns. They're built on the first call, and from then
+     * on every move and take back updates them, so games never asked pay nothing for them.
+     * @return PatternIndex, or null if the board is too big to index.
+     */
+    public PatternIndex getPatternIndex() {
+        if (this.patternIndex == null) {
+            Patterns patterns = Patterns.forBoard(this.board);
+            if (patterns != null) {
+                this.patternIndex = new PatternIndex(this.board, patterns);
+            }
+        }
+        return this.patternIndex;
+    }
+
+    /**
+     * Returns the square of given move of the game, counting from 0 up to getHistorySize().
+     * @param index int
+     * @return int
+     */
+    public int getPlayedMove(int index) {
+        return this.history[index].square;
+    }
+
+    /**
+     * Returns the player who played given move of the game, counting from 0 up to getHistorySize().
+     * @param index int
+     * @return Player
+     */
+    public Player getPlayedBy(int index) {
+        return this.history[index].previousTurn;
+    }
+
+    /**
+     * Returns the player the game was initialized to start with, even if that player had to pass
+     * the first turn.
+     * @return Player
+     */
+    public Player getStartingPlayer() {
+        return startingPlayer;
+    }
+
+    /**
+     * Turn the score consistency check on or off. While on, every move compares the tracked score
+     * against a full count of the board. It starts on if the mechanics.checkScore property is set.
+     * @param scoreChecking boolean
+     */
+    public void setScoreChecking(boolean scoreChecking) {
+        this.scoreChecking = scoreChecking;
+    }
+
     /**
      * Get the current score of given Player.
      * @param player Player
@@ -104,21 +349,11 @@ public class Game {
         if (!isGameOn) {
             return;
         }
-        this.availableMoves.clear();
-        for (int i = 0; i < this.board.getBoardHeight(); i++) {
-            for (int j = 0; j < this.board.getBoardWidth(); j++) {
-                Point p = new Point(i, j);
-                if (this.board.getMark(p) == Board.Mark.BLANK) {
-                    if (checkMove(p, false)) {
-                        this.availableMoves.add(p);
-                    }
-                }
-            }
-        }
+        findAvailableMoves();
         if (this.turnsWithoutMoves > 1) {
             return;
         }
-        if (this.availableMoves.isEmpty()) {
+        if (this.moveCount == 0) {
             turnsWithoutMoves ++;
             switchTurn();
             updateAvailableMoves();
@@ -128,69 +363,78 @@ public class Game {
     }
 
     /**
-     * Check if a move is available. If flip is true, it also play the given move.
-     * @param move Point
-     * @param flip boolean
-     * @return if move is available, returns true.
-     */
-    private boolean checkMove(Point move, boolean flip) {
-        int flippables = 0, temp_flippables;
-        for (Point.Direction dir : Point.directions) {
-            temp_flippables = checkDirection(move, dir);
-            flippables += temp_flippables;
-            if (flip) {
-                flip(move, dir, temp_flippables);
-            }
+     * Find the available moves of current player, without passing the turn if there are none.
+     */
+    private void findAvailableMoves() {
+        if (this.moveTracker != null) {
+            this.moveCount = this.moveTracker.getLegalMoves(this.playerMarkMap.get(this.currentTurn), moveSquares);
+        } else {
+            this.moveCount = this.board.getLegalMoves(this.playerMarkMap.get(this.currentTurn), moveSquares);
         }
-        if (flippables > 0) {
-            return true;
+        this.legalMoves.clear();
+        for (int k = 0; k < moveCount; k++) {
+            this.legalMoves.set(moveSquares[k]);
         }
-        return false;
+        this.availableMovesStale = true;
     }
 
     /**
-     * Flip given amount of coins in given direction, starting from given Point.
-     * @param move starting point
-     * @param dir Direction
-     * @param slots number of coins to flip.
+     * Place current player's coin on given square and flip every coin it captures.
+     * @param square the move's square
+     * @param flips filled with the number of coins flipped in each direction.
+     * @return the number of flipped coins.
      */
-    private void flip(Point move, Point.Direction dir, int slots) {
-        Point move_copy = new Point(move);
-        for (int i = 0; i <= slots; i++) {
-            board.setMark(move_copy.getX(), move_copy.getY(), this.playerMarkMap.get(this.currentTurn));
-            move_copy = move_copy.moveDirection(dir);
+    private int flip(int square, int[] flips) {
+        Board.Mark mark = this.playerMarkMap.get(this.currentTurn);
+        int flipped = board.playMove(square, mark, flips);
+        if (this.moveTracker != null) {
+            this.moveTracker.update(square, flips);
+        }
+        if (this.patternIndex != null) {
+            this.patternIndex.play(square, mark, flips);
         }
+        updateHash(square, mark, flips);
+        this.scoreMap.get(this.currentTurn).raiseCount(flipped + 1);
+        this.scoreMap.get(getOppositePlayer(this.currentTurn)).lowerCount(flipped);
+        return flipped;
     }
 
     /**
-     * Check given direction and return the number of coins that will be flipped in this direction if
-     * move was played.
-     * @param move Point
-     * @param dir Direction
-     * @return int
+     * Xor the keys of a coin placed on given square, and of the coins it flipped, into the hash.
+     * @param square the move's square
+     * @param mark the placed coin's mark
+     * @param flips the number of coins flipped in each direction.
      */
-    private int checkDirection(Point move, Point.Direction dir) {
-        Point move_copy = new Point(move);
-        int count = 0;
-        while (true) {
-            move_copy = move_copy.moveDirection(dir);
-            // Scan found an empty slot or reached a border = no coin will be flipped.
-            if (move_copy.getX() < 0
-                    || move_copy.getX() >= this.board.getBoardWidth()
-                    || move_copy.getY() < 0
-                    || move_copy.getY() >= this.board.getBoardHeight()
-                    || this.board.getMark(move_copy) == Board.Mark.BLANK) {
-                return 0;
-            }
-            // Scan reached another coin of current player = every slot counted will be flipped.
-            if (board.getMark(move_copy) == this.playerMarkMap.get(this.currentTurn)) {
-                return count;
-            }
-            // Scan found an opponent's coin = raise count and keep scanning.
-            if (board.getMark(move_copy) == this.playerMarkMap.get(this.getOppositePlayer(this.currentTurn))) {
-                count++;
+    private void updateHash(int square, Board.Mark mark, int[] flips) {
+        long change = this.zobristKeys[square * 2 + (mark == Board.Mark.WHITE ? 1 : 0)];
+        for (int dir = 0; dir < flips.length; dir++) {
+            int offset = board.getOffset(dir);
+            int target = square;
+            for (int k = 0; k < flips[dir]; k++) {
+                target += offset;
+                change ^= this.zobristKeys[target * 2] ^ this.zobristKeys[target * 2 + 1];
             }
         }
+        this.hash ^= change;
+    }
+
+    /**
+     * Remove current player's coin from given square and flip back the coins it captured.
+     * @param square the move's square
+     * @param flips the number of coins flipped in each direction.
+     * @param flipped the number of flipped coins.
+     */
+    private void unflip(int square, int[] flips, int flipped) {
+        Board.Mark mark = this.playerMarkMap.get(this.currentTurn);
+        board.undoMove(square, mark, flips);
+        if (this.moveTracker != null) {
+            this.moveTracker.update(square, flips);
+        }
+        if (this.patternIndex != null) {
+            this.patternIndex.undo(square, mark, flips);
+        }
+        this.scoreMap.get(this.currentTurn).lowerCount(flipped + 1);
+        this.scoreMap.get(getOppositePlayer(this.currentTurn)).raiseCount(flipped);
     }
 
     /**
@@ -216,7 +460,7 @@ public class Game {
      * @return Mark
      */
     public Board.Mark getMark(int i, int j) {
-        return this.board.getMark(new Point(i, j));
+        return this.board.getMark(i, j);
     }
 
     /**
@@ -236,31 +480,93 @@ public class Game {
      */
     private void switchTurn() {
         this.currentTurn = getOppositePlayer(this.currentTurn);
+        this.hash ^= Zobrist.SIDE_KEY;
     }
 
     /**
      * Return a constant reference to availableMoves list.
+     * The list is only built when asked for, from the legal moves of the current turn.
      * @return List
      */
     public final List<Point> getAvailableMoves() {
+        if (this.availableMovesStale) {
+            this.availableMoves.clear();
+            for (int k = 0; k < moveCount; k++) {
+                this.availableMoves.add(board.toPoint(moveSquares[k]));
+            }
+            this.availableMovesStale = false;
+        }
         return availableMoves;
     }
 
     /**
-     * Updates current score of both players.
+     * Write the square of every available move of the current player into given array.
+     * @param squares array with room for every block of the board
+     * @return the number of available moves.
+     */
+    public int getLegalMoves(int[] squares) {
+        System.arraycopy(moveSquares, 0, squares, 0, moveCount);
+        return moveCount;
+    }
+
+    /**
+     * Returns the number of available moves of the current player.
+     * @return int
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Returns a reference to the game's board. It must not be changed outside of the game.
+     * @return Board
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Returns the mark of given player's coins.
+     * @param player Player
+     * @return Mark
+     */
+    public Board.Mark getPlayerMark(Player player) {
+        return playerMarkMap.get(player);
+    }
+
+    /**
+     * Check if given point is an available move for the current player.
+     * @param i point's x parameter
+     * @param j point's y parameter
+     * @return boolean
+     */
+    public boolean isLegal(int i, int j) {
+        if (this.board == null || i < 0 || i >= getWidth() || j < 0 || j >= getHeight()) {
+            return false;
+        }
+        return this.legalMoves.get(board.square(i, j));
+    }
+
+    /**
+     * Count the current score of both players from the board.
+     * From then on flip keeps it up to date.
      */
     private void updateScore() {
-        scoreMap.get(Player.PLAYER1).resetCount();
-        scoreMap.get(Player.PLAYER2).resetCount();
-        Board.Mark current;
-        for (int i = 0; i < this.board.getBoardWidth(); i++) {
-            for (int j = 0; j < this.board.getBoardHeight(); j++) {
-                current = board.getMark(new Point(i, j));
-                if (current == playerMarkMap.get(Player.PLAYER1)) {
-                    scoreMap.get(Player.PLAYER1).raiseCount();
-                } else if (current == playerMarkMap.get(Player.PLAYER2)) {
-                    scoreMap.get(Player.PLAYER2).raiseCount();
-                }
+        for (Player player : Player.values()) {
+            scoreMap.get(player).resetCount();
+            scoreMap.get(player).raiseCount(board.count(playerMarkMap.get(player)));
+        }
+    }
+
+    /**
+     * Compare the tracked score of both players with a full count of the board.
+     */
+    private void verifyScore() {
+        for (Player player : Player.values()) {
+            int counted = board.count(playerMarkMap.get(player));
+            if (counted != getScore(player)) {
+                throw new IllegalStateException("Tracked score of " + player + " is " + getScore(player)
+                        + " but the board holds " + counted + " coins");
             }
         }
     }
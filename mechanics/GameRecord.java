@@ -0,0 +1,174 @@
+package mechanics;
+
+import java.util.Arrays;
+
+public class GameRecord {
+
+    // The move of a player who had no available move.
+    public static final int PASS = -1;
+    // The board sizes a record can hold and a game can be played on.
+    public static final int MIN_SIZE = 2;
+    public static final int MAX_SIZE = 255;
+
+    private int width;
+    private int height;
+    private Game.Player startingPlayer;
+    private int[] moves;
+    private int length;
+
+    /**
+     * Creates a new empty record of an 8x8 game. Records are meant to be refilled, so reading an
+     * archive doesn't create one per game.
+     */
+    public GameRecord() {
+        this.width = 8;
+        this.height = 8;
+        this.startingPlayer = Game.Player.PLAYER1;
+        this.moves = new int[0];
+        this.length = 0;
+    }
+
+    /**
+     * Returns a new record of the moves played so far in given game.
+     * @param game a started Game
+     * @return GameRecord
+     */
+    public static GameRecord of(Game game) {
+        GameRecord record = new GameRecord();
+        record.set(game);
+        return record;
+    }
+
+    /**
+     * Refill this record with the moves played so far in given game, with a pass wherever a player
+     * had to skip a turn, the starting player's first turn included.
+     * @param game a started Game
+     */
+    public void set(Game game) {
+        int count = game.getHistorySize();
+        Game.Player first = game.getStartingPlayer();
+        reset(game.getWidth(), game.getHeight(), first);
+        Board board = game.getBoard();
+        Game.Player expected = first;
+        for (int k = 0; k < count; k++) {
+            Game.Player mover = game.getPlayedBy(k);
+            if (mover != expected) {
+                add(PASS);
+            }
+            int square = game.getPlayedMove(k);
+            add(board.squareX(square) + board.squareY(square) * width);
+            expected = game.getOppositePlayer(mover);
+        }
+    }
+
+    /**
+     * Empty this record for a new game.
+     * @param width the board's width, from MIN_SIZE up to MAX_SIZE
+     * @param height the board's height, from MIN_SIZE up to MAX_SIZE
+     * @param startingPlayer Player
+     */
+    public void reset(int width, int height, Game.Player startingPlayer) {
+        this.width = width;
+        this.height = height;
+        this.startingPlayer = startingPlayer;
+        this.length = 0;
+    }
+
+    /**
+     * Add a move on given block.
+     * @param x block's x parameter
+     * @param y block's y parameter
+     */
+    public void addMove(int x, int y) {
+        add(x + y * width);
+    }
+
+    /**
+     * Add a pass of the player to move.
+     */
+    public void addPass() {
+        add(PASS);
+    }
+
+    /**
+     * Add given block index, or PASS.
+     * @param move int
+     */
+    void add(int move) {
+        if (length == moves.length) {
+            this.moves = Arrays.copyOf(moves, Math.max(2 * length, width * height + 4));
+        }
+        moves[length++] = move;
+    }
+
+    /**
+     * Returns the board's width.
+     * @return int
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the board's height.
+     * @return int
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the player who moved first.
+     * @return Player
+     */
+    public Game.Player getStartingPlayer() {
+        return startingPlayer;
+    }
+
+    /**
+     * Returns the number of moves, passes included.
+     * @return int
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns given move as the block index (x + y * width), or PASS.
+     * @param index int
+     * @return int
+     */
+    public int getMove(int index) {
+        return moves[index];
+    }
+
+    /**
+     * Start given game with this record's settings and play all its moves. A record whose size is
+     * out of range, or whose moves aren't blocks of the board, is corrupt.
+     * @param game Game
+     * @return true if every move was available when played, false if the record is corrupt.
+     */
+    public boolean replay(Game game) {
+        if (width < MIN_SIZE || width > MAX_SIZE || height < MIN_SIZE || height > MAX_SIZE) {
+            return false;
+        }
+        game.initialize(width, height, startingPlayer);
+        game.start();
+        Board board = game.getBoard();
+        Game.Player expected = startingPlayer;
+        for (int k = 0; k < length; k++) {
+            if (moves[k] == PASS) {
+                expected = game.getOppositePlayer(expected);
+                continue;
+            }
+            if (moves[k] < 0 || moves[k] >= width * height) {
+                return false;
+            }
+            if (game.getCurrentTurn() != expected || !game.makeMove(board.square(moves[k] % width, moves[k] / width))) {
+                return false;
+            }
+            expected = game.getOppositePlayer(expected);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,152 @@
+package mechanics;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class GameRecordReader implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    /**
+     * Opens a record file written by GameRecordWriter for reading.
+     * @param path the file
+     * @throws IOException if the file can't be opened or isn't a record file
+     */
+    public GameRecordReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocateDirect(GameRecordWriter.BUFFER_SIZE);
+        this.buffer.limit(0);
+        int magic = 0;
+        for (int k = 0; k < Integer.BYTES; k++) {
+            magic = (magic << 8) | readRequired();
+        }
+        if (magic != GameRecordWriter.MAGIC) {
+            channel.close();
+            throw new IOException("Not a game record file: " + path);
+        }
+    }
+
+    /**
+     * Read the next record into given record, replacing its content.
+     * @param record GameRecord to refill
+     * @return true if a record was read, false at the end of the file.
+     * @throws IOException if reading fails or the file ends inside a record
+     */
+    public boolean next(GameRecord record) throws IOException {
+        int width = readByte();
+        if (width < 0) {
+            return false;
+        }
+        int height = readRequired();
+        int startingPlayer = readRequired();
+        if (startingPlayer >= Game.Player.values().length) {
+            throw new IOException("Corrupt game record: starting player " + startingPlayer);
+        }
+        record.reset(width, height, Game.Player.values()[startingPlayer]);
+        int length = readVarint();
+        for (int k = 0; k < length; k++) {
+            record.add(readVarint() - 1);
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Returns the next byte of the file.
+     * @return the byte's unsigned value, or -1 at the end of the file.
+     * @throws IOException if reading fails
+     */
+    private int readByte() throws IOException {
+        if (!buffer.hasRemaining()) {
+            buffer.clear();
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read == 0);
+            buffer.flip();
+            if (read < 0) {
+                return -1;
+            }
+        }
+        return buffer.get() & 0xff;
+    }
+
+    /**
+     * Returns the next byte of the file, which must exist.
+     * @return the byte's unsigned value
+     * @throws IOException if reading fails or the file ends
+     */
+    private int readRequired() throws IOException {
+        int value = readByte();
+        if (value < 0) {
+            throw new EOFException("Game record file ends inside a record");
+        }
+        return value;
+    }
+
+    /**
+     * Returns the next unsigned varint of the file.
+     * @return int
+     * @throws IOException if reading fails, the file ends or the varint is too long
+     */
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int next = readRequired();
+            value |= (next & 0x7f) << shift;
+            if ((next & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt game record: varint too long");
+    }
+
+    /**
+     * Scan a record file and print how many games and moves it holds and how fast it was read.
+     * Arguments: file [--replay], where --replay also plays every game through Game and counts
+     * the corrupt ones.
+     * @param args String[]
+     * @throws IOException if the file can't be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: GameRecordReader file [--replay]");
+            return;
+        }
+        boolean replay = args.length > 1 && args[1].equals("--replay");
+        Path path = Paths.get(args[0]);
+        GameRecord record = new GameRecord();
+        Game game = new Game();
+        long games = 0;
+        long moves = 0;
+        long corrupt = 0;
+        long start = System.nanoTime();
+        try (GameRecordReader reader = new GameRecordReader(path)) {
+            while (reader.next(record)) {
+                games++;
+                moves += record.getLength();
+                if (replay && !record.replay(game)) {
+                    corrupt++;
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double megabytes = path.toFile().length() / (1024.0 * 1024.0);
+        System.out.printf("%d games, %d moves in %.2f s: %.1f MB/s, %.0f games/sec%n", games, moves, seconds,
+                megabytes / seconds, games / seconds);
+        if (replay) {
+            System.out.println(corrupt + " corrupt games");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package mechanics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class GameRecordWriter implements Closeable {
+
+    // "RVR1": the first four bytes of every record file.
+    static final int MAGIC = 0x52565231;
+    static final int BUFFER_SIZE = 1 << 20;
+    private static final int MAX_HEADER_BYTES = 3 + 5;
+    private static final int MAX_MOVE_BYTES = 3;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    /**
+     * Opens a record file for writing. A record is the board's width and height and the starting
+     * player's number in one byte each, then the number of moves and every move as unsigned
+     * varints: 0 for a pass, or the block index (x + y * width) plus one. On boards of up to 127
+     * blocks every move takes one byte.
+     * @param path the file
+     * @param append true to add records to an existing file, false to replace it.
+     * @throws IOException if the file can't be opened
+     */
+    public GameRecordWriter(Path path, boolean append) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        if (channel.size() == 0) {
+            buffer.putInt(MAGIC);
+        }
+    }
+
+    /**
+     * Write given game's moves so far as one record.
+     * @param game a started Game
+     * @throws IOException if writing fails
+     */
+    public void write(Game game) throws IOException {
+        write(GameRecord.of(game));
+    }
+
+    /**
+     * Write given record. Writers can be shared between threads; every record is written whole.
+     * @param record GameRecord
+     * @throws IOException if writing fails
+     */
+    public synchronized void write(GameRecord record) throws IOException {
+        if (record.getWidth() > GameRecord.MAX_SIZE || record.getHeight() > GameRecord.MAX_SIZE) {
+            throw new IllegalArgumentException("Boards wider or higher than " + GameRecord.MAX_SIZE
+                    + " blocks can't be recorded");
+        }
+        int maxBytes = MAX_HEADER_BYTES + record.getLength() * MAX_MOVE_BYTES;
+        if (buffer.remaining() < maxBytes) {
+            drain();
+        }
+        if (buffer.remaining() < maxBytes) {
+            throw new IllegalArgumentException("Record of " + record.getLength() + " moves is too long");
+        }
+        buffer.put((byte) record.getWidth());
+        buffer.put((byte) record.getHeight());
+        buffer.put((byte) record.getStartingPlayer().ordinal());
+        putVarint(record.getLength());
+        for (int k = 0; k < record.getLength(); k++) {
+            putVarint(record.getMove(k) + 1);
+        }
+    }
+
+    /**
+     * Write every buffered record to the file.
+     * @throws IOException if writing fails
+     */
+    public synchronized void flush() throws IOException {
+        drain();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Write the buffer's content to the channel and empty it.
+     * @throws IOException if writing fails
+     */
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Put given non negative number as an unsigned varint: seven bits a byte, low bits first, with
+     * the high bit set on every byte but the last.
+     * @param value int
+     */
+    private void putVarint(int value) {
+        while ((value & ~0x7f) != 0) {
+            buffer.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
@@ -7,17 +7,27 @@ import java.util.Map;
 
 public class GameSettings implements Serializable {
 
+    public enum Renderer { GRID, CANVAS }
+    public enum Opponent { HUMAN, COMPUTER }
+
+    // The id computed for the class before the renderer was added, so config.ser files saved by
+    // older versions still load. Fields they don't hold are read as null and given their default.
+    private static final long serialVersionUID = 3088711957891467224L;
     private static final int DEFAULT_WIDTH = 8;
     private static final int DEFAULT_HEIGHT = 8;
     private static final Game.Player DEFAULT_STARTING_PLAYER = Game.Player.PLAYER1;
     private static final String DEFAULT_PLAYER1_COLOR = "Black";
     private static final String DEFAULT_PLAYER2_COLOR = "White";
+    private static final Renderer DEFAULT_RENDERER = Renderer.GRID;
+    private static final Opponent DEFAULT_OPPONENT = Opponent.HUMAN;
 
     private int boardWidth;
     private int boardHeight;
     private Game.Player startingPlayer;
     private String player1Color;
     private String player2Color;
+    private Renderer renderer;
+    private Opponent opponent;
     private static transient Map<String, Color> colorMap = Map.of("Black", Color.BLACK,
             "White", Color.WHITE,
             "Green", Color.GREEN,
@@ -38,6 +48,8 @@ public class GameSettings implements Serializable {
         this.startingPlayer = DEFAULT_STARTING_PLAYER;
         this.player1Color = DEFAULT_PLAYER1_COLOR;
         this.player2Color = DEFAULT_PLAYER2_COLOR;
+        this.renderer = DEFAULT_RENDERER;
+        this.opponent = DEFAULT_OPPONENT;
     }
 
     /**
@@ -120,6 +132,39 @@ public class GameSettings implements Serializable {
         this.player2Color = player2Color;
     }
 
+    /**
+     * Returns how the board is drawn: GRID with nodes for every block, or CANVAS on a single
+     * canvas, which stays fast on big boards.
+     * @return Renderer, the default one if settings saved before it existed were loaded
+     */
+    public Renderer getRenderer() {
+        return (renderer == null) ? DEFAULT_RENDERER : renderer;
+    }
+
+    /**
+     * Set how the board is drawn.
+     * @param renderer Renderer
+     */
+    public void setRenderer(Renderer renderer) {
+        this.renderer = renderer;
+    }
+
+    /**
+     * Returns who plays player 2: another HUMAN at the same screen, or the COMPUTER.
+     * @return Opponent, the default one if settings saved before it existed were loaded
+     */
+    public Opponent getOpponent() {
+        return (opponent == null) ? DEFAULT_OPPONENT : opponent;
+    }
+
+    /**
+     * Set who plays player 2.
+     * @param opponent Opponent
+     */
+    public void setOpponent(Opponent opponent) {
+        this.opponent = opponent;
+    }
+
     /**
      * Creates a GameSettings object from an external config.ser file.
      * @return GameSettings object
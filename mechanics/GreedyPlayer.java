@@ -0,0 +1,39 @@
+package mechanics;
+
+public class GreedyPlayer implements ComputerPlayer {
+
+    private int[] moves;
+
+    /**
+     * Creates a new player choosing the move that flips the most coins. Ties go to the first such
+     * move in board order.
+     */
+    public GreedyPlayer() {
+        this.moves = new int[0];
+    }
+
+    @Override
+    public Point chooseMove(Game game) {
+        if (game.getMoveCount() == 0) {
+            return null;
+        }
+        if (moves.length < game.getMoveCount()) {
+            this.moves = new int[game.getWidth() * game.getHeight()];
+        }
+        int count = game.getLegalMoves(moves);
+        Game.Player player = game.getCurrentTurn();
+        Game trial = new Game(game);
+        int bestMove = moves[0];
+        int bestScore = -1;
+        for (int k = 0; k < count; k++) {
+            trial.makeMove(moves[k]);
+            int score = trial.getScore(player);
+            trial.unmakeMove();
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = moves[k];
+            }
+        }
+        return game.getBoard().toPoint(bestMove);
+    }
+}
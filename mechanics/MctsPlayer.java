@@ -0,0 +1,338 @@
+package mechanics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MctsPlayer implements ComputerPlayer {
+
+    private static final double EXPLORATION = 1.4;
+    // Visits a thread adds to every node on its path while its playout runs, so other threads
+    // spread over other paths. Taken back when the result comes in.
+    private static final int VIRTUAL_LOSS = 3;
+
+    private long timeBudget;
+    private long playoutBudget;
+    private SearchInfo lastSearch;
+    private int threads;
+    private ExecutorService helpers;
+
+    private long deadline;
+    private AtomicLong playouts;
+    private volatile boolean stopped;
+
+    /**
+     * A position in the search tree, reached by playing move. Visits and wins are only changed
+     * through atomic updates, so any number of threads can search the tree at once.
+     */
+    private static final class Node {
+        private static final AtomicIntegerFieldUpdater<Node> VISITS =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+        private static final AtomicIntegerFieldUpdater<Node> WINS =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "wins");
+
+        private final int move;
+        private final Game.Player player;
+        private volatile int visits;
+        // Half points of the player who moved here: 2 for a win and 1 for a draw.
+        private volatile int wins;
+        private volatile Node[] children;
+        private final int depth;
+
+        /**
+         * Creates a new node.
+         * @param move the square played to get here, or -1 for the root
+         * @param player the player who played move
+         * @param depth distance from the root
+         */
+        private Node(int move, Game.Player player, int depth) {
+            this.move = move;
+            this.player = player;
+            this.depth = depth;
+        }
+
+        /**
+         * Create a child for every available move of given game, unless another thread did already.
+         * @param game Game at this node
+         * @param moves buffer for the moves
+         */
+        private synchronized void expand(Game game, int[] moves) {
+            if (children != null) {
+                return;
+            }
+            int count = game.getLegalMoves(moves);
+            Node[] created = new Node[count];
+            for (int k = 0; k < count; k++) {
+                created[k] = new Node(moves[k], game.getCurrentTurn(), depth + 1);
+            }
+            this.children = created;
+        }
+
+        /**
+         * Returns the child with the best upper confidence bound, trying every child once first.
+         * @return Node
+         */
+        private Node select() {
+            Node[] options = children;
+            double logVisits = Math.log(Math.max(1, visits));
+            Node best = options[0];
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Node child : options) {
+                int childVisits = child.visits;
+                if (childVisits == 0) {
+                    return child;
+                }
+                double value = child.wins / (2.0 * childVisits) + EXPLORATION * Math.sqrt(logVisits / childVisits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * One searching thread's private game, buffers and random numbers.
+     */
+    private final class Worker {
+        private final Game game;
+        private final Node[] path;
+        private final int[] moves;
+        private long seed;
+
+        /**
+         * Creates a new worker searching from given game.
+         * @param game Game, used by this worker only
+         * @param seed seed of the worker's random numbers, not 0
+         */
+        private Worker(Game game, long seed) {
+            this.game = game;
+            this.path = new Node[game.getWidth() * game.getHeight() + 1];
+            this.moves = new int[game.getWidth() * game.getHeight()];
+            this.seed = seed;
+        }
+
+        /**
+         * Run playouts from given root until the budget is used up or the search is stopped.
+         * @param root Node
+         */
+        private void run(Node root) {
+            while (!stopped) {
+                long claimed = MctsPlayer.this.playouts.getAndIncrement();
+                if (playoutBudget > 0 && claimed >= playoutBudget) {
+                    stopped = true;
+                    break;
+                }
+                if (System.nanoTime() > deadline) {
+                    stopped = true;
+                    break;
+                }
+                playout(root);
+            }
+        }
+
+        /**
+         * Walk down the tree, grow it by one node, play random moves to the end of the game and
+         * count the result for every node on the way.
+         * @param root Node
+         */
+        private void playout(Node root) {
+            int base = game.getHistorySize();
+            Node node = root;
+            int length = 0;
+            path[length++] = root;
+            Node.VISITS.addAndGet(root, VIRTUAL_LOSS);
+            while (!game.isGameOver()) {
+                if (node.children == null) {
+                    // A new node gets a playout of its own before it grows children.
+                    if (node.visits <= VIRTUAL_LOSS && node != root) {
+                        break;
+                    }
+                    node.expand(game, moves);
+                }
+                node = node.select();
+                Node.VISITS.addAndGet(node, VIRTUAL_LOSS);
+                game.makeMove(node.move);
+                path[length++] = node;
+            }
+            while (!game.isGameOver()) {
+                int count = game.getLegalMoves(moves);
+                game.makeMove(moves[nextInt(count)]);
+            }
+            int difference = game.getScore(Game.Player.PLAYER1) - game.getScore(Game.Player.PLAYER2);
+            for (int k = 0; k < length; k++) {
+                Node visited = path[k];
+                Node.VISITS.addAndGet(visited, 1 - VIRTUAL_LOSS);
+                int sign = (visited.player == Game.Player.PLAYER1) ? difference : -difference;
+                Node.WINS.addAndGet(visited, sign > 0 ? 2 : sign == 0 ? 1 : 0);
+                path[k] = null;
+            }
+            while (game.getHistorySize() > base) {
+                game.unmakeMove();
+            }
+        }
+
+        /**
+         * Returns a random number from 0 to bound, exclusive, from an xorshift generator.
+         * @param bound int
+         * @return int
+         */
+        private int nextInt(int bound) {
+            seed ^= seed << 13;
+            seed ^= seed >>> 7;
+            seed ^= seed << 17;
+            return (int) ((seed >>> 33) % bound);
+        }
+    }
+
+    /**
+     * Creates a new Monte Carlo tree search player, thinking about every move for given time.
+     * @param timeBudget milliseconds
+     */
+    public MctsPlayer(long timeBudget) {
+        this.timeBudget = timeBudget;
+        this.playoutBudget = 0;
+        this.threads = 1;
+        this.helpers = null;
+        this.lastSearch = null;
+    }
+
+    /**
+     * Set the time to think about every move.
+     * @param timeBudget milliseconds
+     */
+    public void setTimeBudget(long timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+
+    /**
+     * Set the number of playouts of every move. The time budget still applies.
+     * @param playoutBudget playouts, or 0 to play out until the time is up
+     */
+    public void setPlayoutBudget(long playoutBudget) {
+        this.playoutBudget = playoutBudget;
+    }
+
+    /**
+     * Set the number of threads growing the shared tree.
+     * @param threads int, at least 1
+     */
+    public void setThreads(int threads) {
+        threads = Math.max(1, threads);
+        if (threads == this.threads) {
+            return;
+        }
+        if (this.helpers != null) {
+            this.helpers.shutdown();
+            this.helpers = null;
+        }
+        this.threads = threads;
+        if (threads > 1) {
+            this.helpers = Executors.newFixedThreadPool(threads - 1, runnable -> {
+                Thread thread = new Thread(runnable, "playout-helper");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Returns the report of the last search, or null if nothing was searched yet. Its nodes are
+     * playouts, its depth the deepest tree node and its score the chosen move's win rate in
+     * thousandths.
+     * @return SearchInfo
+     */
+    public SearchInfo getLastSearch() {
+        return lastSearch;
+    }
+
+    /**
+     * Returns the playouts per second of a single thread in the last search.
+     * @return long
+     */
+    public long getPlayoutsPerSecondPerThread() {
+        if (lastSearch == null) {
+            return 0;
+        }
+        return lastSearch.getNodesPerSecond() / threads;
+    }
+
+    /**
+     * Grow a tree of random playouts on every thread until the budget is used up, and return the
+     * most visited move.
+     * @param game a started Game
+     * @return Point
+     */
+    @Override
+    public Point chooseMove(Game game) {
+        long start = System.nanoTime();
+        this.deadline = start + timeBudget * 1000000L;
+        this.playouts = new AtomicLong();
+        this.stopped = false;
+        if (game.getMoveCount() == 0) {
+            this.lastSearch = new SearchInfo(0, 0, System.nanoTime() - start, 0, null);
+            return null;
+        }
+        Node root = new Node(-1, game.getOppositePlayer(game.getCurrentTurn()), 0);
+        Worker main = new Worker(new Game(game), start | 1);
+        root.expand(main.game, main.moves);
+        if (root.children.length > 1) {
+            List<Future<?>> running = new ArrayList<>();
+            for (int k = 1; k < threads; k++) {
+                Worker helper = new Worker(new Game(game), (start + k * 0x9e3779b97f4a7c15L) | 1);
+                running.add(helpers.submit(() -> helper.run(root)));
+            }
+            main.run(root);
+            this.stopped = true;
+            for (Future<?> helper : running) {
+                await(helper);
+            }
+        }
+        Node best = root.children[0];
+        for (Node child : root.children) {
+            if (child.visits > best.visits) {
+                best = child;
+            }
+        }
+        int score = (best.visits == 0) ? 500 : (int) (500L * best.wins / best.visits);
+        Point move = game.getBoard().toPoint(best.move);
+        this.lastSearch = new SearchInfo(treeDepth(root), root.visits, System.nanoTime() - start, score, move);
+        return move;
+    }
+
+    /**
+     * Wait for given helper to finish.
+     * @param helper Future
+     */
+    private static void await(Future<?> helper) {
+        try {
+            helper.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Playout helper failed", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the depth of the deepest node below given node.
+     * @param node Node
+     * @return int
+     */
+    private static int treeDepth(Node node) {
+        int deepest = node.depth;
+        Node[] children = node.children;
+        if (children != null) {
+            for (Node child : children) {
+                deepest = Math.max(deepest, treeDepth(child));
+            }
+        }
+        return deepest;
+    }
+}
@@ -0,0 +1,176 @@
+package mechanics;
+
+import java.util.BitSet;
+
+public class MoveTracker {
+
+    private final Board board;
+    // Empty squares with at least one occupied neighbour. Only these can ever be legal.
+    private final BitSet frontier;
+    private final BitSet blackMoves;
+    private final BitSet whiteMoves;
+    private final BitSet dirty;
+
+    /**
+     * Creates a new tracker of the legal moves of both players on given board.
+     * @param board Board
+     */
+    public MoveTracker(Board board) {
+        this.board = board;
+        this.frontier = new BitSet(board.getSquareCount());
+        this.blackMoves = new BitSet(board.getSquareCount());
+        this.whiteMoves = new BitSet(board.getSquareCount());
+        this.dirty = new BitSet(board.getSquareCount());
+        reset();
+    }
+
+    /**
+     * Creates a copy of given tracker, following given copy of its board.
+     * @param other MoveTracker
+     * @param board copy of the other tracker's board
+     */
+    public MoveTracker(MoveTracker other, Board board) {
+        this.board = board;
+        this.frontier = (BitSet) other.frontier.clone();
+        this.blackMoves = (BitSet) other.blackMoves.clone();
+        this.whiteMoves = (BitSet) other.whiteMoves.clone();
+        this.dirty = new BitSet(board.getSquareCount());
+    }
+
+    /**
+     * Rebuild the frontier and both players' legal moves from a full scan of the board.
+     */
+    public void reset() {
+        frontier.clear();
+        blackMoves.clear();
+        whiteMoves.clear();
+        for (int j = 0; j < board.getBoardHeight(); j++) {
+            for (int i = 0; i < board.getBoardWidth(); i++) {
+                int square = board.square(i, j);
+                if (board.getMark(square) == Board.Mark.BLANK && hasOccupiedNeighbour(square)) {
+                    frontier.set(square);
+                    recheck(square);
+                }
+            }
+        }
+    }
+
+    /**
+     * Update the legal moves after given square was played or taken back, flipping the given
+     * runs of coins. Only the first empty square behind each changed coin, in every direction,
+     * can see a different line of coins than before, so those are the only squares checked again.
+     * @param square the played square
+     * @param flips number of coins flipped in each direction, in Point.directions order.
+     */
+    public void update(int square, int[] flips) {
+        if (board.getMark(square) == Board.Mark.BLANK) {
+            // The move was taken back, so its square and neighbours may leave or rejoin the frontier.
+            frontier.set(square, hasOccupiedNeighbour(square));
+            dirty.set(square);
+            for (int dir = 0; dir < flips.length; dir++) {
+                int next = board.step(square, dir);
+                if (next >= 0 && board.getMark(next) == Board.Mark.BLANK && !hasOccupiedNeighbour(next)) {
+                    frontier.clear(next);
+                    blackMoves.clear(next);
+                    whiteMoves.clear(next);
+                }
+            }
+        } else {
+            frontier.clear(square);
+            blackMoves.clear(square);
+            whiteMoves.clear(square);
+            for (int dir = 0; dir < flips.length; dir++) {
+                int next = board.step(square, dir);
+                if (next >= 0 && board.getMark(next) == Board.Mark.BLANK) {
+                    frontier.set(next);
+                }
+            }
+        }
+        markRays(square);
+        for (int dir = 0; dir < flips.length; dir++) {
+            int offset = board.getOffset(dir);
+            for (int k = 1; k <= flips[dir]; k++) {
+                markRays(square + k * offset);
+            }
+        }
+        dirty.and(frontier);
+        for (int next = dirty.nextSetBit(0); next >= 0; next = dirty.nextSetBit(next + 1)) {
+            recheck(next);
+        }
+        dirty.clear();
+    }
+
+    /**
+     * Check if given square is a legal move for given mark.
+     * @param square int
+     * @param mark Mark
+     * @return boolean
+     */
+    public boolean isLegal(int square, Board.Mark mark) {
+        return moves(mark).get(square);
+    }
+
+    /**
+     * Write the square of every legal move of given mark into given array, in ascending order.
+     * @param mark Mark
+     * @param squares array with room for every block of the board
+     * @return the number of legal moves.
+     */
+    public int getLegalMoves(Board.Mark mark, int[] squares) {
+        BitSet legal = moves(mark);
+        int count = 0;
+        for (int square = legal.nextSetBit(0); square >= 0; square = legal.nextSetBit(square + 1)) {
+            squares[count++] = square;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the set of legal moves of given mark.
+     * @param mark Mark
+     * @return BitSet
+     */
+    private BitSet moves(Board.Mark mark) {
+        return (mark == Board.Mark.BLACK) ? blackMoves : whiteMoves;
+    }
+
+    /**
+     * Mark the first empty square in every direction from given square for a recheck.
+     * @param square int
+     */
+    private void markRays(int square) {
+        for (int dir = 0; dir < Point.directions.size(); dir++) {
+            int next = board.step(square, dir);
+            while (next >= 0 && board.getMark(next) != Board.Mark.BLANK) {
+                next = board.step(next, dir);
+            }
+            if (next >= 0) {
+                dirty.set(next);
+            }
+        }
+    }
+
+    /**
+     * Check again if given frontier square is a legal move for each player.
+     * @param square int
+     */
+    private void recheck(int square) {
+        blackMoves.set(square, board.isLegalMove(square, Board.Mark.BLACK));
+        whiteMoves.set(square, board.isLegalMove(square, Board.Mark.WHITE));
+    }
+
+    /**
+     * Check if any neighbour of given square holds a coin.
+     * @param square int
+     * @return boolean
+     */
+    private boolean hasOccupiedNeighbour(int square) {
+        for (int dir = 0; dir < Point.directions.size(); dir++) {
+            int next = board.step(square, dir);
+            if (next >= 0 && board.getMark(next) != Board.Mark.BLANK) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,225 @@
+package mechanics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OpeningBook implements Closeable {
+
+    public static final int DEFAULT_MAX_PLY = 15;
+    public static final int DEFAULT_MIN_VISITS = 2;
+
+    private final PositionStore store;
+    private final ThreadLocal<PositionStore.Entry> entries;
+
+    /**
+     * Creates a book answering from given store, keyed by canonical position keys.
+     * @param store PositionStore
+     */
+    public OpeningBook(PositionStore store) {
+        this.store = store;
+        this.entries = ThreadLocal.withInitial(PositionStore.Entry::new);
+    }
+
+    /**
+     * Opens a book file for lookups from any number of threads.
+     * @param path the book file
+     * @return OpeningBook
+     * @throws IOException if the file can't be opened
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        return new OpeningBook(PositionStore.open(path, true));
+    }
+
+    /**
+     * Returns the book move of given game's position, as a block index (x + y * width). Positions
+     * are looked up under their canonical symmetry, so one entry serves all rotations and
+     * reflections of a position, and the move is turned back to fit the game's board.
+     * @param game a started Game
+     * @return int, or -1 if the position isn't in the book.
+     */
+    public int lookup(Game game) {
+        Board board = game.getBoard();
+        PositionKey key = PositionKey.canonical(board, game.getPlayerMark(game.getCurrentTurn()));
+        PositionStore.Entry entry = entries.get();
+        if (!store.get(key, entry) || entry.getBestMove() < 0) {
+            return -1;
+        }
+        int width = board.getBoardWidth();
+        int move = Symmetry.transform(Symmetry.inverse(key.getSymmetry()), entry.getBestMove(), width,
+                board.getBoardHeight());
+        return game.isLegal(move % width, move / width) ? move : -1;
+    }
+
+    /**
+     * Returns the book move of given game's position.
+     * @param game a started Game
+     * @return Point, or null if the position isn't in the book.
+     */
+    public Point getMove(Game game) {
+        int move = lookup(game);
+        if (move < 0) {
+            return null;
+        }
+        return new Point(move % game.getWidth(), move / game.getWidth());
+    }
+
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+
+    /**
+     * Build a book from game record files. Every position of the first maxPly moves of every game
+     * counts the game's result. Then every position gets the move whose resulting position, seen
+     * in at least minVisits games, scored best for the player who made it.
+     * @param path the book file, replaced if it exists
+     * @param records game record files
+     * @param maxPly number of moves of every game to take positions from
+     * @param minVisits games a move must have been played in to be a book move
+     * @return the number of positions in the book
+     * @throws IOException if reading or writing fails
+     */
+    public static long build(Path path, List<Path> records, int maxPly, int minVisits) throws IOException {
+        long games = 0;
+        GameRecord record = new GameRecord();
+        for (Path file : records) {
+            try (GameRecordReader reader = new GameRecordReader(file)) {
+                while (reader.next(record)) {
+                    games++;
+                }
+            }
+        }
+        try (PositionStore store = PositionStore.create(path, Math.max(1024, games * (maxPly + 1)))) {
+            Game game = new Game();
+            Game walk = new Game();
+            for (Path file : records) {
+                try (GameRecordReader reader = new GameRecordReader(file)) {
+                    while (reader.next(record)) {
+                        if (!record.replay(game)) {
+                            continue;
+                        }
+                        int difference = game.getScore(Game.Player.PLAYER1) - game.getScore(Game.Player.PLAYER2);
+                        Board.Mark black = game.getPlayerMark(Game.Player.PLAYER1);
+                        int blackWins = (difference > 0) == (black == Board.Mark.BLACK) && difference != 0 ? 1 : 0;
+                        int whiteWins = (difference != 0 && blackWins == 0) ? 1 : 0;
+                        addPositions(store, record, walk, maxPly, blackWins, whiteWins);
+                    }
+                }
+            }
+            PositionStore.Entry entry = new PositionStore.Entry();
+            for (Path file : records) {
+                try (GameRecordReader reader = new GameRecordReader(file)) {
+                    while (reader.next(record)) {
+                        chooseMoves(store, record, walk, maxPly, minVisits, entry);
+                    }
+                }
+            }
+            return store.size();
+        }
+    }
+
+    /**
+     * Count the result of given game for each of its first positions.
+     * @param store PositionStore
+     * @param record the game
+     * @param game Game to replay on
+     * @param maxPly number of moves to take positions from
+     * @param blackWins 1 if black won the game
+     * @param whiteWins 1 if white won the game
+     */
+    private static void addPositions(PositionStore store, GameRecord record, Game game, int maxPly,
+                                     int blackWins, int whiteWins) {
+        game.initialize(record.getWidth(), record.getHeight(), record.getStartingPlayer());
+        game.start();
+        Board board = game.getBoard();
+        int ply = 0;
+        for (int k = 0; k < record.getLength() && ply < maxPly; k++) {
+            int move = record.getMove(k);
+            if (move == GameRecord.PASS) {
+                continue;
+            }
+            store.addResults(PositionKey.canonical(board, game.getPlayerMark(game.getCurrentTurn())), 1,
+                    blackWins, whiteWins);
+            game.makeMove(board.square(move % record.getWidth(), move / record.getWidth()));
+            ply++;
+        }
+    }
+
+    /**
+     * Store the best move of each of given game's first positions, unless it was stored already.
+     * @param store PositionStore
+     * @param record the game
+     * @param game Game to replay on
+     * @param maxPly number of moves to take positions from
+     * @param minVisits games a move must have been played in to be a book move
+     * @param entry Entry to read into
+     */
+    private static void chooseMoves(PositionStore store, GameRecord record, Game game, int maxPly, int minVisits,
+                                    PositionStore.Entry entry) {
+        game.initialize(record.getWidth(), record.getHeight(), record.getStartingPlayer());
+        game.start();
+        Board board = game.getBoard();
+        int width = record.getWidth();
+        int[] moves = new int[width * record.getHeight()];
+        int ply = 0;
+        for (int k = 0; k < record.getLength() && ply < maxPly; k++) {
+            int played = record.getMove(k);
+            if (played == GameRecord.PASS) {
+                continue;
+            }
+            Board.Mark mover = game.getPlayerMark(game.getCurrentTurn());
+            PositionKey key = PositionKey.canonical(board, mover);
+            if (store.get(key, entry) && entry.getBestMove() < 0) {
+                int best = -1;
+                double bestScore = -1;
+                int bestVisits = 0;
+                int count = game.getLegalMoves(moves);
+                for (int m = 0; m < count; m++) {
+                    game.makeMove(moves[m]);
+                    boolean found = store.get(PositionKey.canonical(board, game.getPlayerMark(game.getCurrentTurn())), entry);
+                    game.unmakeMove();
+                    if (!found || entry.getVisits() < minVisits) {
+                        continue;
+                    }
+                    int wins = (mover == Board.Mark.BLACK) ? entry.getBlackWins() : entry.getWhiteWins();
+                    int draws = entry.getVisits() - entry.getBlackWins() - entry.getWhiteWins();
+                    double score = (wins + 0.5 * draws) / entry.getVisits();
+                    if (score > bestScore || (score == bestScore && entry.getVisits() > bestVisits)) {
+                        best = board.squareX(moves[m]) + board.squareY(moves[m]) * width;
+                        bestScore = score;
+                        bestVisits = entry.getVisits();
+                    }
+                }
+                if (best >= 0) {
+                    store.setBestMove(key, Symmetry.transform(key.getSymmetry(), best, width, record.getHeight()), 0);
+                }
+            }
+            game.makeMove(board.square(played % width, played / width));
+            ply++;
+        }
+    }
+
+    /**
+     * Build a book from game record files.
+     * Arguments: book maxPly minVisits records...
+     * @param args String[]
+     * @throws IOException if reading or writing fails
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.out.println("Usage: OpeningBook book maxPly minVisits records...");
+            return;
+        }
+        List<Path> records = new ArrayList<>();
+        for (int k = 3; k < args.length; k++) {
+            records.add(Paths.get(args[k]));
+        }
+        long start = System.nanoTime();
+        long positions = build(Paths.get(args[0]), records, Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+        System.out.printf("%d positions in %.2f s%n", positions, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,86 @@
+package mechanics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public class PatternEvaluator implements Evaluator {
+
+    // Scores stay this far inside the win scores.
+    private static final int SCORE_LIMIT = AlphaBetaPlayer.WIN_SCORE - 1;
+
+    private final PatternWeights loaded;
+    private final Evaluator fallback;
+    private PatternWeights weights;
+    private int[] moves;
+
+    /**
+     * Creates a new evaluator using the default weights of whatever board size it sees.
+     */
+    public PatternEvaluator() {
+        this(null);
+    }
+
+    /**
+     * Creates a new evaluator that sums the weights of the board's edge, second row, corner and
+     * diagonal patterns, looked up by the indices the game keeps up to date, plus the mobility of both
+     * players. Boards too big for patterns, or of another size than given weights, are
+     * scored by a PositionalEvaluator instead. It keeps the weights of the last board size it
+     * saw, so it isn't thread safe.
+     * @param weights PatternWeights, or null for the default weights of every board size
+     */
+    public PatternEvaluator(PatternWeights weights) {
+        this.loaded = weights;
+        this.weights = weights;
+        this.fallback = new PositionalEvaluator();
+        this.moves = new int[0];
+    }
+
+    /**
+     * Creates a new evaluator using the weights of given file.
+     * @param path a file written by PatternWeights.save
+     * @return PatternEvaluator
+     * @throws IOException if the file can't be read
+     */
+    public static PatternEvaluator load(Path path) throws IOException {
+        return new PatternEvaluator(PatternWeights.load(path));
+    }
+
+    @Override
+    public int evaluate(Game game) {
+        PatternIndex index = game.getPatternIndex();
+        if (index == null) {
+            return fallback.evaluate(game);
+        }
+        Patterns patterns = index.getPatterns();
+        if (weights == null || weights.getWidth() != patterns.getWidth() || weights.getHeight() != patterns.getHeight()) {
+            if (loaded != null) {
+                return fallback.evaluate(game);
+            }
+            this.weights = PatternWeights.defaults(game.getBoard());
+        }
+        int phase = weights.getPhase(game.getScore(Game.Player.PLAYER1) + game.getScore(Game.Player.PLAYER2));
+        short[][] tables = weights.getTables(phase);
+        int[] classes = patterns.getInstanceClasses();
+        int[] indices = index.getIndices();
+        int score = 0;
+        for (int instance = 0; instance < indices.length; instance++) {
+            score += tables[classes[instance]][indices[instance]];
+        }
+        Board.Mark own = game.getPlayerMark(game.getCurrentTurn());
+        if (own == Board.Mark.WHITE) {
+            score = -score;
+        }
+        if (moves.length < game.getWidth() * game.getHeight()) {
+            this.moves = new int[game.getWidth() * game.getHeight()];
+        }
+        // Boards small enough for patterns are bitset boards, which find all moves at once.
+        int mobility = game.getMoveCount() - game.getBoard().getLegalMoves(Board.opposite(own), moves);
+        score += weights.getMobility(phase) * mobility;
+        return Math.max(-SCORE_LIMIT, Math.min(SCORE_LIMIT, score));
+    }
+
+    @Override
+    public Evaluator copy() {
+        return new PatternEvaluator(loaded);
+    }
+}
@@ -0,0 +1,105 @@
+package mechanics;
+
+public class PatternIndex {
+
+    private final Patterns patterns;
+    private final int[] indices;
+    private final int[] offsets;
+
+    /**
+     * Creates the indices of every pattern on given board.
+     * @param board Board
+     * @param patterns the patterns of the board's size
+     */
+    public PatternIndex(Board board, Patterns patterns) {
+        this.patterns = patterns;
+        this.indices = new int[patterns.getInstanceCount()];
+        this.offsets = new int[Point.directions.size()];
+        for (int dir = 0; dir < offsets.length; dir++) {
+            this.offsets[dir] = board.getOffset(dir);
+        }
+        for (int instance = 0; instance < indices.length; instance++) {
+            this.indices[instance] = patterns.index(board, instance);
+        }
+    }
+
+    /**
+     * Copy constructor.
+     * @param other PatternIndex
+     */
+    public PatternIndex(PatternIndex other) {
+        this.patterns = other.patterns;
+        this.indices = other.indices.clone();
+        this.offsets = other.offsets;
+    }
+
+    /**
+     * Returns the patterns the indices belong to.
+     * @return Patterns
+     */
+    public Patterns getPatterns() {
+        return patterns;
+    }
+
+    /**
+     * Returns the current index of every placed pattern, in Patterns instance order.
+     * @return int[], not to be changed
+     */
+    public int[] getIndices() {
+        return indices;
+    }
+
+    /**
+     * Update the indices after given mark was placed on given square, flipping the given runs of
+     * coins.
+     * @param square the move's square
+     * @param mark the placed coin's mark
+     * @param flips the number of coins flipped in each direction, in Point.directions order.
+     */
+    public void play(int square, Board.Mark mark, int[] flips) {
+        update(square, mark, flips, 1);
+    }
+
+    /**
+     * Update the indices after a move of given mark on given square was taken back.
+     * @param square the move's square
+     * @param mark the taken back coin's mark
+     * @param flips the number of coins flipped in each direction, in Point.directions order.
+     */
+    public void undo(int square, Board.Mark mark, int[] flips) {
+        update(square, mark, flips, -1);
+    }
+
+    /**
+     * Add the digit changes of a move to the indices of the patterns it touches.
+     * @param square the move's square
+     * @param mark the move's mark
+     * @param flips the number of coins flipped in each direction
+     * @param sign 1 to play the move, -1 to take it back
+     */
+    private void update(int square, Board.Mark mark, int[] flips, int sign) {
+        add(square, sign * mark.ordinal());
+        // A flipped coin turns from the opponent's digit into the mover's.
+        int change = sign * (mark.ordinal() - Board.opposite(mark).ordinal());
+        for (int dir = 0; dir < flips.length; dir++) {
+            int target = square;
+            for (int k = 0; k < flips[dir]; k++) {
+                target += offsets[dir];
+                add(target, change);
+            }
+        }
+    }
+
+    /**
+     * Add given change of given square's digit to every pattern covering it.
+     * @param square int
+     * @param change the new digit minus the old one
+     */
+    private void add(int square, int change) {
+        int[] instances = patterns.getInstances(square);
+        int[] powers = patterns.getPowers(square);
+        for (int k = 0; k < instances.length; k++) {
+            indices[instances[k]] += change * powers[k];
+        }
+    }
+}
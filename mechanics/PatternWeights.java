@@ -0,0 +1,249 @@
+package mechanics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+public class PatternWeights {
+
+    public static final int DEFAULT_PHASES = 4;
+    // "RVPW": the first four bytes of every weights file.
+    private static final int MAGIC = 0x52565057;
+    private static final int VERSION = 1;
+    private static final int DEFAULT_MOBILITY_WEIGHT = 5;
+
+    private final int width;
+    private final int height;
+    // Weights of every phase, pattern class and index, for black. Classes the board doesn't place
+    // have empty tables.
+    private final short[][][] tables;
+    private final short[] mobility;
+
+    /**
+     * Creates zero weights for the patterns of a board of given size.
+     * @param width the board's width, at most Patterns.MAX_LENGTH
+     * @param height the board's height, at most Patterns.MAX_LENGTH
+     * @param phases the number of game phases with weights of their own
+     */
+    public PatternWeights(int width, int height, int phases) {
+        this.width = width;
+        this.height = height;
+        Patterns patterns = Patterns.forBoard(Board.create(width, height));
+        if (patterns == null) {
+            throw new IllegalArgumentException("Board too big for patterns: " + width + "x" + height);
+        }
+        this.tables = new short[phases][Patterns.CLASS_COUNT][];
+        this.mobility = new short[phases];
+        for (int phase = 0; phase < phases; phase++) {
+            for (int type = 0; type < Patterns.CLASS_COUNT; type++) {
+                int size = (patterns.getInstanceCount(type) > 0) ? patterns.getIndexCount(type) : 0;
+                tables[phase][type] = new short[size];
+            }
+        }
+    }
+
+    /**
+     * Returns weights that score patterns by where their coins stand, like PositionalEvaluator.
+     * A coin's square weight is split between all patterns covering its square, so the patterns
+     * of a position add up to its positional score. Every phase gets the same weights.
+     * @param board Board, at most Patterns.MAX_LENGTH blocks wide and high
+     * @return PatternWeights
+     */
+    public static PatternWeights defaults(Board board) {
+        int width = board.getBoardWidth();
+        int height = board.getBoardHeight();
+        PatternWeights weights = new PatternWeights(width, height, DEFAULT_PHASES);
+        Patterns patterns = Patterns.forBoard(board);
+        int[] classes = patterns.getInstanceClasses();
+        for (int type = 0; type < Patterns.CLASS_COUNT; type++) {
+            int instance = 0;
+            while (instance < classes.length && classes[instance] != type) {
+                instance++;
+            }
+            if (instance == classes.length) {
+                continue;
+            }
+            // Every instance of a class is a symmetric image of the first, so its squares share
+            // weights and coverage with the first's.
+            int[] squares = patterns.getSquares(instance);
+            double[] shares = new double[squares.length];
+            for (int k = 0; k < squares.length; k++) {
+                int square = squares[k];
+                shares[k] = (double) PositionalEvaluator.squareWeight(board.squareX(square), board.squareY(square),
+                        width, height) / patterns.getInstances(square).length;
+            }
+            short[] table = weights.tables[0][type];
+            for (int index = 0; index < table.length; index++) {
+                double value = 0;
+                int digits = index;
+                for (int k = 0; k < squares.length; k++) {
+                    int digit = digits % 3;
+                    digits /= 3;
+                    if (digit == Board.Mark.BLACK.ordinal()) {
+                        value += shares[k];
+                    } else if (digit == Board.Mark.WHITE.ordinal()) {
+                        value -= shares[k];
+                    }
+                }
+                table[index] = (short) Math.round(value);
+            }
+        }
+        for (int phase = 1; phase < DEFAULT_PHASES; phase++) {
+            for (int type = 0; type < Patterns.CLASS_COUNT; type++) {
+                weights.tables[phase][type] = weights.tables[0][type].clone();
+            }
+        }
+        Arrays.fill(weights.mobility, (short) DEFAULT_MOBILITY_WEIGHT);
+        return weights;
+    }
+
+    /**
+     * Read weights written by save.
+     * @param path the weights file
+     * @return PatternWeights
+     * @throws IOException if the file can't be read or isn't a weights file
+     */
+    public static PatternWeights load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                throw new IOException("Not a pattern weights file: " + path);
+            }
+            int width = in.readUnsignedByte();
+            int height = in.readUnsignedByte();
+            int phases = in.readUnsignedByte();
+            if (width > Patterns.MAX_LENGTH || height > Patterns.MAX_LENGTH || phases == 0) {
+                throw new IOException("Corrupt pattern weights file: " + width + "x" + height + ", " + phases + " phases");
+            }
+            PatternWeights weights = new PatternWeights(width, height, phases);
+            for (int phase = 0; phase < phases; phase++) {
+                weights.mobility[phase] = in.readShort();
+                for (short[] table : weights.tables[phase]) {
+                    for (int index = 0; index < table.length; index++) {
+                        table[index] = in.readShort();
+                    }
+                }
+            }
+            return weights;
+        }
+    }
+
+    /**
+     * Write the weights to a file: a header of magic, version, board size and phase count, then
+     * every phase's mobility weight and tables as big endian shorts.
+     * @param path the weights file, replaced if it exists
+     * @throws IOException if writing fails
+     */
+    public void save(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(width);
+            out.writeByte(height);
+            out.writeByte(tables.length);
+            for (int phase = 0; phase < tables.length; phase++) {
+                out.writeShort(mobility[phase]);
+                for (short[] table : tables[phase]) {
+                    for (short weight : table) {
+                        out.writeShort(weight);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the board width the weights are for.
+     * @return int
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the board height the weights are for.
+     * @return int
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of game phases.
+     * @return int
+     */
+    public int getPhases() {
+        return tables.length;
+    }
+
+    /**
+     * Returns the phase of a game with given number of coins on the board. Phases split the game
+     * into equal stretches of moves.
+     * @param coins the number of coins on the board
+     * @return int
+     */
+    public int getPhase(int coins) {
+        return Math.min(tables.length - 1, coins * tables.length / (width * height + 1));
+    }
+
+    /**
+     * Returns the weights of given phase and pattern class, by pattern index, for black. The
+     * table is the weights' own, so changing it changes the weights.
+     * @param phase int
+     * @param type pattern class, like Patterns.CORNER
+     * @return short[]
+     */
+    public short[] getTable(int phase, int type) {
+        return tables[phase][type];
+    }
+
+    /**
+     * Returns the weights of given phase, by pattern class and index, for black.
+     * @param phase int
+     * @return short[][], the weights' own tables
+     */
+    public short[][] getTables(int phase) {
+        return tables[phase];
+    }
+
+    /**
+     * Returns the weight of each move the player to move has more than the opponent, in given
+     * phase.
+     * @param phase int
+     * @return int
+     */
+    public int getMobility(int phase) {
+        return mobility[phase];
+    }
+
+    /**
+     * Set the weight of each move the player to move has more than the opponent, in given phase.
+     * @param phase int
+     * @param weight short
+     */
+    public void setMobility(int phase, short weight) {
+        this.mobility[phase] = weight;
+    }
+
+    /**
+     * Write the default weights of a board size to a file, as a starting point for tuning.
+     * Arguments: width height file
+     * @param args String[]
+     * @throws IOException if the file can't be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: PatternWeights width height file");
+            return;
+        }
+        Board board = Board.create(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+        Path path = Paths.get(args[2]);
+        defaults(board).save(path);
+        System.out.println("Wrote " + Files.size(path) + " bytes to " + path);
+    }
+}
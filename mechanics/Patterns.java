@@ -0,0 +1,236 @@
+package mechanics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class Patterns {
+
+    // Pattern classes. Every class is a line of blocks read from a corner, placed on the board
+    // once for every symmetry that moves it somewhere new. Instances of a class share weights.
+    public static final int HORIZONTAL_EDGE = 0;
+    public static final int VERTICAL_EDGE = 1;
+    public static final int HORIZONTAL_SECOND = 2;
+    public static final int VERTICAL_SECOND = 3;
+    public static final int CORNER = 4;
+    public static final int DIAGONAL = 5;
+    public static final int CLASS_COUNT = 6;
+    // A pattern of this many blocks has 3^10 = 59049 indices, so longer lines aren't indexed.
+    public static final int MAX_LENGTH = 10;
+    private static final int CORNER_SIZE = 3;
+
+    private static final Map<Long, Patterns> CACHE = new ConcurrentHashMap<>();
+
+    private final int width;
+    private final int height;
+    private final int[] lengths;
+    private final int[] instanceCounts;
+    private final int[] instanceClasses;
+    private final int[][] instanceSquares;
+    // For every square, the instances covering it and the power of 3 of its digit in each.
+    private final int[][] squareInstances;
+    private final int[][] squarePowers;
+
+    /**
+     * Creates the patterns of given board's size and layout.
+     * @param board Board, at most MAX_LENGTH blocks wide and high
+     */
+    private Patterns(Board board) {
+        this.width = board.getBoardWidth();
+        this.height = board.getBoardHeight();
+        int diagonal = Math.min(width, height);
+        this.lengths = new int[] {width, height, width, height, CORNER_SIZE * CORNER_SIZE, diagonal};
+        int[][] lines = new int[CLASS_COUNT][];
+        for (int type = 0; type < CLASS_COUNT; type++) {
+            lines[type] = new int[lengths[type]];
+        }
+        for (int k = 0; k < width; k++) {
+            lines[HORIZONTAL_EDGE][k] = k;
+            lines[HORIZONTAL_SECOND][k] = k + width;
+        }
+        for (int k = 0; k < height; k++) {
+            lines[VERTICAL_EDGE][k] = k * width;
+            lines[VERTICAL_SECOND][k] = 1 + k * width;
+        }
+        for (int k = 0; k < CORNER_SIZE * CORNER_SIZE; k++) {
+            lines[CORNER][k] = (k % CORNER_SIZE) + (k / CORNER_SIZE) * width;
+        }
+        for (int k = 0; k < diagonal; k++) {
+            lines[DIAGONAL][k] = k + k * width;
+        }
+        List<Integer> classes = new ArrayList<>();
+        List<int[]> squares = new ArrayList<>();
+        Set<Set<Integer>> placed = new HashSet<>();
+        for (int type = 0; type < CLASS_COUNT; type++) {
+            for (int symmetry = 0; symmetry < Symmetry.count(width, height); symmetry++) {
+                int[] instance = new int[lengths[type]];
+                Set<Integer> blocks = new HashSet<>();
+                for (int k = 0; k < instance.length; k++) {
+                    int block = Symmetry.transform(symmetry, lines[type][k], width, height);
+                    blocks.add(block);
+                    instance[k] = board.square(block % width, block / width);
+                }
+                // A line and its mirror image cover the same blocks, as do the edges of a square
+                // board, or the second rows of a board 3 blocks high: each set of blocks is
+                // indexed once.
+                if (placed.add(blocks)) {
+                    classes.add(type);
+                    squares.add(instance);
+                }
+            }
+        }
+        this.instanceClasses = classes.stream().mapToInt(Integer::intValue).toArray();
+        this.instanceCounts = new int[CLASS_COUNT];
+        for (int type : instanceClasses) {
+            instanceCounts[type]++;
+        }
+        this.instanceSquares = squares.toArray(new int[0][]);
+        int[] covering = new int[board.getSquareCount()];
+        for (int[] instance : instanceSquares) {
+            for (int square : instance) {
+                covering[square]++;
+            }
+        }
+        this.squareInstances = new int[board.getSquareCount()][];
+        this.squarePowers = new int[board.getSquareCount()][];
+        for (int square = 0; square < covering.length; square++) {
+            squareInstances[square] = new int[covering[square]];
+            squarePowers[square] = new int[covering[square]];
+        }
+        Arrays.fill(covering, 0);
+        for (int instance = 0; instance < instanceSquares.length; instance++) {
+            int power = 1;
+            for (int square : instanceSquares[instance]) {
+                squareInstances[square][covering[square]] = instance;
+                squarePowers[square][covering[square]] = power;
+                covering[square]++;
+                power *= 3;
+            }
+        }
+    }
+
+    /**
+     * Returns the patterns of given board's size and layout, shared by all boards like it.
+     * @param board Board
+     * @return Patterns, or null if the board is too big to index.
+     */
+    public static Patterns forBoard(Board board) {
+        if (board.getBoardWidth() > MAX_LENGTH || board.getBoardHeight() > MAX_LENGTH) {
+            return null;
+        }
+        long key = ((long) board.getStride() << 32) | ((long) board.getBoardWidth() << 16) | board.getBoardHeight();
+        return CACHE.computeIfAbsent(key, unused -> new Patterns(board));
+    }
+
+    /**
+     * Returns the board width the patterns were made for.
+     * @return int
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the board height the patterns were made for.
+     * @return int
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of blocks of given pattern class.
+     * @param type pattern class, like CORNER
+     * @return int
+     */
+    public int getLength(int type) {
+        return lengths[type];
+    }
+
+    /**
+     * Returns the number of indices of given pattern class, 3 to the power of its length.
+     * @param type pattern class, like CORNER
+     * @return int
+     */
+    public int getIndexCount(int type) {
+        int count = 1;
+        for (int k = 0; k < lengths[type]; k++) {
+            count *= 3;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of times given pattern class is placed on the board. It's 0 for the
+     * vertical lines of square boards, which are placed as horizontal lines turned around.
+     * @param type pattern class, like CORNER
+     * @return int
+     */
+    public int getInstanceCount(int type) {
+        return instanceCounts[type];
+    }
+
+    /**
+     * Returns the number of patterns placed on the board.
+     * @return int
+     */
+    public int getInstanceCount() {
+        return instanceClasses.length;
+    }
+
+    /**
+     * Returns the class of every placed pattern.
+     * @return int[], not to be changed
+     */
+    public int[] getInstanceClasses() {
+        return instanceClasses;
+    }
+
+    /**
+     * Returns the squares of given placed pattern, in digit order.
+     * @param instance int
+     * @return int[], not to be changed
+     */
+    public int[] getSquares(int instance) {
+        return instanceSquares[instance];
+    }
+
+    /**
+     * Returns the placed patterns covering given square.
+     * @param square int
+     * @return int[], not to be changed
+     */
+    public int[] getInstances(int square) {
+        return squareInstances[square];
+    }
+
+    /**
+     * Returns the power of 3 of given square's digit in each of the patterns covering it, in
+     * getInstances order.
+     * @param square int
+     * @return int[], not to be changed
+     */
+    public int[] getPowers(int square) {
+        return squarePowers[square];
+    }
+
+    /**
+     * Returns the index of given placed pattern on given board: the base 3 number whose k-th
+     * digit is the mark ordinal of the pattern's k-th square, BLANK 0, BLACK 1 and WHITE 2.
+     * @param board Board of the patterns' size
+     * @param instance int
+     * @return int
+     */
+    public int index(Board board, int instance) {
+        int index = 0;
+        int[] squares = instanceSquares[instance];
+        for (int k = squares.length - 1; k >= 0; k--) {
+            index = index * 3 + board.getMark(squares[k]).ordinal();
+        }
+        return index;
+    }
+}
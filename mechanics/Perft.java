@@ -0,0 +1,374 @@
+package mechanics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class Perft {
+
+    // Leaf counts of the standard 8x8 start, black to move, by depth. Published tables count a pass
+    // as a move of its own, which first makes a difference at depth 9, so they stop at 8 here.
+    static final long[] STANDARD_COUNTS = {1, 4, 12, 56, 244, 1396, 8200, 55092, 390216};
+    private static final int SPLIT_PLIES = 2;
+    private static final long SEED = 20171218L;
+
+    private final CountTable table;
+    private int[][] moveBuffers;
+
+    /**
+     * A lock-free table of subtree leaf counts, keyed by position hash and depth. Every entry is
+     * two longs, (key ^ count) then count, so a torn entry reads as a miss.
+     */
+    private static final class CountTable {
+        private final AtomicLongArray entries;
+        private final int mask;
+
+        /**
+         * Creates a new table taking about given amount of memory.
+         * @param megabytes int, at least 1
+         */
+        private CountTable(int megabytes) {
+            long slots = Long.highestOneBit(Math.max(1, megabytes) * 1024L * 1024L / (2 * Long.BYTES));
+            slots = Math.min(slots, 1 << 28);
+            this.entries = new AtomicLongArray((int) slots * 2);
+            this.mask = (int) slots - 1;
+        }
+
+        /**
+         * Returns the leaf count stored under given key, or -1 if there is none.
+         * @param key long
+         * @return long
+         */
+        private long get(long key) {
+            int slot = ((int) (key ^ (key >>> 32)) & mask) * 2;
+            long count = entries.getOpaque(slot + 1);
+            if (count > 0 && (entries.getOpaque(slot) ^ count) == key) {
+                return count;
+            }
+            return -1;
+        }
+
+        /**
+         * Store given leaf count under given key, replacing whatever was in its slot.
+         * @param key long
+         * @param count long
+         */
+        private void put(long key, long count) {
+            int slot = ((int) (key ^ (key >>> 32)) & mask) * 2;
+            entries.setOpaque(slot, key ^ count);
+            entries.setOpaque(slot + 1, count);
+        }
+    }
+
+    /**
+     * Creates a new perft counter.
+     * @param tableSize megabytes of subtree counts to remember, or 0 to count every node.
+     */
+    public Perft(int tableSize) {
+        this(tableSize > 0 ? new CountTable(tableSize) : null);
+    }
+
+    /**
+     * Creates a new perft counter sharing given table.
+     * @param table CountTable, or null to count every node
+     */
+    private Perft(CountTable table) {
+        this.table = table;
+        this.moveBuffers = new int[0][];
+    }
+
+    /**
+     * Returns the number of positions reached after exactly given number of moves from given game,
+     * plus the finished games reached sooner. Passes are made inside Game.makeMove, as in a real
+     * game, so they don't use up depth.
+     * @param game a started Game
+     * @param depth int
+     * @return long
+     */
+    public long count(Game game, int depth) {
+        int area = game.getWidth() * game.getHeight();
+        if (moveBuffers.length < depth || (depth > 0 && moveBuffers[0].length != area)) {
+            this.moveBuffers = new int[depth][area];
+        }
+        return count(game, depth, 0);
+    }
+
+    /**
+     * Returns the leaf count of given game to given depth.
+     * @param game Game
+     * @param depth remaining depth
+     * @param ply distance from where the count started
+     * @return long
+     */
+    private long count(Game game, int depth, int ply) {
+        if (depth == 0 || game.isGameOver()) {
+            return 1;
+        }
+        int[] moves = moveBuffers[ply];
+        int moveCount = game.getLegalMoves(moves);
+        if (depth == 1) {
+            return moveCount;
+        }
+        long key = 0;
+        if (table != null) {
+            key = game.getHash() ^ (depth * 0x9e3779b97f4a7c15L);
+            long stored = table.get(key);
+            if (stored > 0) {
+                return stored;
+            }
+        }
+        long nodes = 0;
+        for (int k = 0; k < moveCount; k++) {
+            game.makeMove(moves[k]);
+            nodes += count(game, depth - 1, ply + 1);
+            game.unmakeMove();
+        }
+        if (table != null) {
+            table.put(key, nodes);
+        }
+        return nodes;
+    }
+
+    /**
+     * Returns the leaf count of given game to given depth, with the subtrees below the first
+     * moves counted on given number of threads. Hashing threads share one table.
+     * @param game a started Game
+     * @param depth int
+     * @param threads int
+     * @param tableSize megabytes of subtree counts to remember, or 0 to count every node.
+     * @return long
+     */
+    public static long countParallel(Game game, int depth, int threads, int tableSize) {
+        if (depth <= SPLIT_PLIES) {
+            return new Perft(tableSize).count(new Game(game), depth);
+        }
+        List<int[]> prefixes = new ArrayList<>();
+        collectPrefixes(new Game(game), SPLIT_PLIES, new int[0], prefixes);
+        CountTable table = tableSize > 0 ? new CountTable(tableSize) : null;
+        ThreadLocal<Perft> counters = ThreadLocal.withInitial(() -> new Perft(table));
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int[] prefix : prefixes) {
+                results.add(workers.submit(() -> {
+                    Game copy = new Game(game);
+                    for (int square : prefix) {
+                        copy.makeMove(square);
+                    }
+                    return counters.get().count(copy, depth - prefix.length);
+                }));
+            }
+            long nodes = 0;
+            for (Future<Long> result : results) {
+                nodes += result.get();
+            }
+            return nodes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Perft worker failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Add every sequence of given number of moves from given game to given list. Sequences ending
+     * in a finished game are added as they are.
+     * @param game Game
+     * @param plies the number of moves left to add
+     * @param prefix the moves played so far
+     * @param prefixes List
+     */
+    private static void collectPrefixes(Game game, int plies, int[] prefix, List<int[]> prefixes) {
+        if (plies == 0 || game.isGameOver()) {
+            prefixes.add(prefix);
+            return;
+        }
+        int[] moves = new int[game.getMoveCount()];
+        int count = game.getLegalMoves(moves);
+        for (int k = 0; k < count; k++) {
+            int[] longer = Arrays.copyOf(prefix, prefix.length + 1);
+            longer[prefix.length] = moves[k];
+            game.makeMove(moves[k]);
+            collectPrefixes(game, plies - 1, longer, prefixes);
+            game.unmakeMove();
+        }
+    }
+
+    /**
+     * Returns the leaf count of given position to given depth, computed on a plain ArrayBoard
+     * without Game, its move generators or its pass handling. Serves as the oracle for verify.
+     * @param board ArrayBoard
+     * @param mark the mark to move
+     * @param depth int
+     * @return long
+     */
+    static long referenceCount(Board board, Board.Mark mark, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        List<Integer> moves = referenceMoves(board, mark);
+        if (moves.isEmpty()) {
+            mark = Board.opposite(mark);
+            moves = referenceMoves(board, mark);
+            if (moves.isEmpty()) {
+                return 1;
+            }
+        }
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        int[] flips = new int[Point.directions.size()];
+        for (int square : moves) {
+            Board next = board.copy();
+            next.playMove(square, mark, flips);
+            nodes += referenceCount(next, Board.opposite(mark), depth - 1);
+        }
+        return nodes;
+    }
+
+    /**
+     * Returns every square of given board where given mark may be placed, by trying them all.
+     * @param board Board
+     * @param mark Mark
+     * @return List
+     */
+    private static List<Integer> referenceMoves(Board board, Board.Mark mark) {
+        List<Integer> moves = new ArrayList<>();
+        for (int j = 0; j < board.getBoardHeight(); j++) {
+            for (int i = 0; i < board.getBoardWidth(); i++) {
+                if (board.getMark(i, j) == Board.Mark.BLANK && board.isLegalMove(i, j, mark)) {
+                    moves.add(board.square(i, j));
+                }
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Count leaves from the standard start or a given position, or verify the move generators.
+     * Arguments: [depth] [--position rows X|O] [--threads n] [--hash megabytes] [--verify]
+     * Rows are given as for Board.parse, and X or O is the color to move. With --verify the counts
+     * of the standard start are checked against the known values, and random positions on other
+     * board sizes against a plain ArrayBoard count; the exit code is 1 on any mismatch.
+     * @param args String[]
+     */
+    public static void main(String[] args) {
+        int depth = 8;
+        int threads = 1;
+        int tableSize = 0;
+        boolean verify = false;
+        Board board = Board.create(8, 8);
+        Game.Player toMove = Game.Player.PLAYER1;
+        for (int k = 0; k < args.length; k++) {
+            switch (args[k]) {
+                case "--position":
+                    board = Board.parse(args[++k]);
+                    toMove = args[++k].equalsIgnoreCase("O") ? Game.Player.PLAYER2 : Game.Player.PLAYER1;
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++k]);
+                    break;
+                case "--hash":
+                    tableSize = Integer.parseInt(args[++k]);
+                    break;
+                case "--verify":
+                    verify = true;
+                    break;
+                default:
+                    depth = Integer.parseInt(args[k]);
+            }
+        }
+        if (verify) {
+            boolean passed = verify(Math.min(depth, STANDARD_COUNTS.length - 1), threads, tableSize);
+            System.out.println(passed ? "All counts match" : "MISMATCH");
+            System.exit(passed ? 0 : 1);
+        }
+        Game game = new Game();
+        game.initialize(board, toMove);
+        game.start();
+        for (int d = 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            long nodes = countParallel(game, d, threads, tableSize);
+            long nanos = Math.max(1, System.nanoTime() - start);
+            System.out.printf("depth %2d: %,15d leaves in %,8d ms (%,d leaves/sec)%n", d, nodes, nanos / 1000000,
+                    nodes * 1000000000L / nanos);
+        }
+    }
+
+    /**
+     * Check the counts of the standard start to given depth against the known values, and the
+     * counts of random positions on other sizes against the ArrayBoard oracle, in every mode.
+     * @param depth deepest standard depth to check
+     * @param threads threads of the parallel mode
+     * @param tableSize megabytes of the hashing mode, or 0 for a default
+     * @return true if every count matched.
+     */
+    private static boolean verify(int depth, int threads, int tableSize) {
+        int hashSize = tableSize > 0 ? tableSize : 16;
+        boolean passed = true;
+        for (int d = 1; d <= depth; d++) {
+            Game game = new Game();
+            game.initialize(8, 8, Game.Player.PLAYER1);
+            game.start();
+            long plain = new Perft(0).count(game, d);
+            long hashed = new Perft(hashSize).count(game, d);
+            long parallel = countParallel(game, d, Math.max(2, threads), hashSize);
+            boolean match = plain == STANDARD_COUNTS[d] && hashed == plain && parallel == plain;
+            passed &= match;
+            System.out.println("8x8 depth " + d + ": " + plain + ", hashed " + hashed + ", parallel " + parallel
+                    + ", expected " + STANDARD_COUNTS[d] + (match ? "" : "  MISMATCH"));
+        }
+        Random random = new Random(SEED);
+        for (int size : new int[] {4, 6, 8, 10, 12}) {
+            for (int position = 0; position < 4; position++) {
+                Game game = randomPosition(size, random);
+                Board reference = new ArrayBoard(size, size);
+                for (int j = 0; j < size; j++) {
+                    for (int i = 0; i < size; i++) {
+                        reference.setMark(i, j, game.getMark(i, j));
+                    }
+                }
+                int d = size <= 6 ? 6 : 4;
+                Board.Mark mark = game.getPlayerMark(game.getCurrentTurn());
+                long expected = game.isGameOver() ? 1 : referenceCount(reference, mark, d);
+                long plain = new Perft(0).count(game, d);
+                long hashed = new Perft(hashSize).count(game, d);
+                boolean match = plain == expected && hashed == expected;
+                passed &= match;
+                if (!match) {
+                    System.out.println(size + "x" + size + " " + game.getBoard() + " " + mark + " depth " + d + ": "
+                            + plain + ", hashed " + hashed + ", expected " + expected + "  MISMATCH");
+                }
+            }
+        }
+        return passed;
+    }
+
+    /**
+     * Returns a game of given size after a random number of random moves.
+     * @param size the board's width and height
+     * @param random Random
+     * @return Game
+     */
+    static Game randomPosition(int size, Random random) {
+        Game game = new Game();
+        game.initialize(size, size, Game.Player.PLAYER1);
+        game.start();
+        int[] moves = new int[size * size];
+        int plies = random.nextInt(size * size - 4);
+        for (int k = 0; k < plies && !game.isGameOver(); k++) {
+            game.makeMove(moves[random.nextInt(game.getLegalMoves(moves))]);
+        }
+        return game;
+    }
+}
@@ -86,4 +86,13 @@ public class Point {
         }
         return super.equals(obj);
     }
+
+    /**
+     * Returns a hash code consistent with equals, so Points can be kept in hash based collections.
+     * @return int
+     */
+    @Override
+    public int hashCode() {
+        return 31 * x + y;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,320 @@
+package mechanics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PositionDedup {
+
+    public static final int DEFAULT_MEMORY = 256;
+    // The rough heap taken by one unique position while its partition is counted.
+    private static final int ENTRY_BYTES = 160;
+    private static final int MAX_PARTITIONS = 1024;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final int maxPly;
+    private final long memory;
+    private long positions;
+    private long unique;
+    private int partitions;
+
+    /**
+     * One unique position of a partition: its canonical form and how often it was seen.
+     */
+    private static final class Count {
+        private final int width;
+        private final int height;
+        private final int toMove;
+        private final byte[] blocks;
+        private long count;
+
+        /**
+         * Creates a new count of a position seen once.
+         * @param width the board's width
+         * @param height the board's height
+         * @param toMove ordinal of the mark to move
+         * @param blocks the canonical form's marks, four blocks to a byte
+         */
+        private Count(int width, int height, int toMove, byte[] blocks) {
+            this.width = width;
+            this.height = height;
+            this.toMove = toMove;
+            this.blocks = blocks;
+            this.count = 1;
+        }
+    }
+
+    /**
+     * Creates a new deduplicator of the positions of game records.
+     * @param maxPly number of moves of every game to take positions from
+     * @param memory megabytes of heap to count unique positions in
+     */
+    public PositionDedup(int maxPly, int memory) {
+        this.maxPly = maxPly;
+        this.memory = Math.max(1, memory) * 1024L * 1024L;
+    }
+
+    /**
+     * Write every unique canonical position of given game record files to given file, one line
+     * each: the rows of the canonical board in Board.parse form, X or O for the mark to move, and
+     * the number of times the position or any of its symmetric images was seen. Positions are
+     * first spread over partition files on disk by the hash of their canonical key, with enough
+     * partitions that the unique positions of one fit the memory budget; then every partition is
+     * counted in memory on its own.
+     * @param records game record files
+     * @param output the output file, replaced if it exists
+     * @return the number of unique positions
+     * @throws IOException if reading or writing fails
+     */
+    public long run(List<Path> records, Path output) throws IOException {
+        long estimate = countPositions(records);
+        this.partitions = (int) Math.max(1, Math.min(MAX_PARTITIONS, (estimate * ENTRY_BYTES + memory - 1) / memory));
+        this.positions = 0;
+        this.unique = 0;
+        Path directory = Files.createTempDirectory("dedup");
+        try {
+            spill(records, directory);
+            try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+                for (int partition = 0; partition < partitions; partition++) {
+                    Path file = partitionFile(directory, partition);
+                    count(file, writer);
+                    Files.delete(file);
+                }
+            }
+        } finally {
+            for (int partition = 0; partition < partitions; partition++) {
+                Files.deleteIfExists(partitionFile(directory, partition));
+            }
+            Files.deleteIfExists(directory);
+        }
+        return unique;
+    }
+
+    /**
+     * Returns the number of positions the last run read.
+     * @return long
+     */
+    public long getPositions() {
+        return positions;
+    }
+
+    /**
+     * Returns the number of partitions the last run spread positions over.
+     * @return int
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Returns an upper bound of the number of positions in given record files, without replaying
+     * them.
+     * @param records game record files
+     * @return long
+     * @throws IOException if reading fails
+     */
+    private long countPositions(List<Path> records) throws IOException {
+        long count = 0;
+        GameRecord record = new GameRecord();
+        for (Path file : records) {
+            try (GameRecordReader reader = new GameRecordReader(file)) {
+                while (reader.next(record)) {
+                    count += Math.min(record.getLength(), maxPly) + 1;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Replay every game and append each of its positions to the partition of its canonical key:
+     * the key's two halves, the board size and mark to move, then the canonical form's blocks.
+     * @param records game record files
+     * @param directory the partition files' directory
+     * @throws IOException if reading or writing fails
+     */
+    private void spill(List<Path> records, Path directory) throws IOException {
+        DataOutputStream[] outputs = new DataOutputStream[partitions];
+        try {
+            for (int partition = 0; partition < partitions; partition++) {
+                outputs[partition] = new DataOutputStream(new BufferedOutputStream(
+                        Files.newOutputStream(partitionFile(directory, partition)), BUFFER_SIZE));
+            }
+            GameRecord record = new GameRecord();
+            Game game = new Game();
+            for (Path file : records) {
+                try (GameRecordReader reader = new GameRecordReader(file)) {
+                    while (reader.next(record)) {
+                        spillGame(record, game, outputs);
+                    }
+                }
+            }
+        } finally {
+            for (DataOutputStream output : outputs) {
+                if (output != null) {
+                    output.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Append the positions of one game to the partitions.
+     * @param record the game
+     * @param game Game to replay on
+     * @param outputs the partition files
+     * @throws IOException if writing fails
+     */
+    private void spillGame(GameRecord record, Game game, DataOutputStream[] outputs) throws IOException {
+        int width = record.getWidth();
+        int height = record.getHeight();
+        game.initialize(width, height, record.getStartingPlayer());
+        game.start();
+        Board board = game.getBoard();
+        byte[] blocks = new byte[(width * height + 3) / 4];
+        int ply = 0;
+        for (int k = 0; ; k++) {
+            while (k < record.getLength() && record.getMove(k) == GameRecord.PASS) {
+                k++;
+            }
+            Board.Mark toMove = game.getPlayerMark(game.getCurrentTurn());
+            PositionKey key = PositionKey.canonical(board, toMove);
+            pack(board, key.getSymmetry(), blocks);
+            DataOutputStream output = outputs[(int) Long.remainderUnsigned(key.getLow(), partitions)];
+            output.writeLong(key.getHigh());
+            output.writeLong(key.getLow());
+            output.writeByte(width);
+            output.writeByte(height);
+            output.writeByte(toMove.ordinal());
+            output.write(blocks);
+            positions++;
+            if (k >= record.getLength() || ply >= maxPly) {
+                return;
+            }
+            int move = record.getMove(k);
+            if (!game.makeMove(board.square(move % width, move / width))) {
+                return;
+            }
+            ply++;
+        }
+    }
+
+    /**
+     * Count the positions of one partition and write the unique ones.
+     * @param file the partition file
+     * @param writer the output
+     * @throws IOException if reading or writing fails
+     */
+    private void count(Path file, Writer writer) throws IOException {
+        Map<PositionKey, Count> counts = new HashMap<>();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            while (true) {
+                long high;
+                try {
+                    high = input.readLong();
+                } catch (EOFException e) {
+                    break;
+                }
+                PositionKey key = new PositionKey(high, input.readLong());
+                int width = input.readUnsignedByte();
+                int height = input.readUnsignedByte();
+                int toMove = input.readUnsignedByte();
+                byte[] blocks = new byte[(width * height + 3) / 4];
+                input.readFully(blocks);
+                Count count = counts.get(key);
+                if (count == null) {
+                    counts.put(key, new Count(width, height, toMove, blocks));
+                } else {
+                    count.count++;
+                }
+            }
+        }
+        StringBuilder line = new StringBuilder();
+        for (Count count : counts.values()) {
+            line.setLength(0);
+            for (int block = 0; block < count.width * count.height; block++) {
+                if (block > 0 && block % count.width == 0) {
+                    line.append('/');
+                }
+                int mark = (count.blocks[block >>> 2] >>> ((block & 3) * 2)) & 3;
+                line.append(mark == Board.Mark.BLACK.ordinal() ? 'X' : mark == Board.Mark.WHITE.ordinal() ? 'O' : '-');
+            }
+            line.append(count.toMove == Board.Mark.BLACK.ordinal() ? " X " : " O ").append(count.count).append('\n');
+            writer.append(line);
+        }
+        unique += counts.size();
+    }
+
+    /**
+     * Pack the marks of given board's image under given symmetry, four blocks to a byte, without
+     * building the image.
+     * @param board Board
+     * @param symmetry a Symmetry of the board's size
+     * @param blocks filled with the image's marks in block order
+     */
+    private static void pack(Board board, int symmetry, byte[] blocks) {
+        int width = board.getBoardWidth();
+        int height = board.getBoardHeight();
+        int inverse = Symmetry.inverse(symmetry);
+        Arrays.fill(blocks, (byte) 0);
+        for (int block = 0; block < width * height; block++) {
+            int source = Symmetry.transform(inverse, block, width, height);
+            int mark = board.getMark(board.square(source % width, source / width)).ordinal();
+            blocks[block >>> 2] |= (byte) (mark << ((block & 3) * 2));
+        }
+    }
+
+    /**
+     * Returns the file of given partition.
+     * @param directory the partition files' directory
+     * @param partition int
+     * @return Path
+     */
+    private static Path partitionFile(Path directory, int partition) {
+        return directory.resolve("partition-" + partition);
+    }
+
+    /**
+     * Write the unique canonical positions of game record files, with counts.
+     * Arguments: output records... [--max-ply n] [--memory mb]
+     * @param args String[]
+     * @throws IOException if reading or writing fails
+     */
+    public static void main(String[] args) throws IOException {
+        List<Path> records = new ArrayList<>();
+        int maxPly = Integer.MAX_VALUE;
+        int memory = DEFAULT_MEMORY;
+        for (int k = 1; k < args.length; k++) {
+            if (args[k].equals("--max-ply")) {
+                maxPly = Integer.parseInt(args[++k]);
+            } else if (args[k].equals("--memory")) {
+                memory = Integer.parseInt(args[++k]);
+            } else {
+                records.add(Paths.get(args[k]));
+            }
+        }
+        if (records.isEmpty()) {
+            System.out.println("Usage: PositionDedup output records... [--max-ply n] [--memory mb]");
+            return;
+        }
+        PositionDedup dedup = new PositionDedup(maxPly, memory);
+        long start = System.nanoTime();
+        long unique = dedup.run(records, Paths.get(args[0]));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d positions, %d unique, %d partitions in %.2f s: %.0f positions/sec%n",
+                dedup.getPositions(), unique, dedup.getPartitions(), seconds, dedup.getPositions() / seconds);
+    }
+}
@@ -0,0 +1,152 @@
+package mechanics;
+
+public final class PositionKey implements Comparable<PositionKey> {
+
+    private static final long SEED_HIGH = 0x6a09e667f3bcc908L;
+    private static final long SEED_LOW = 0xbb67ae8584caa73bL;
+
+    private final long high;
+    private final long low;
+    private final int symmetry;
+
+    /**
+     * Creates a key from its two halves.
+     * @param high long
+     * @param low long, which together with high isn't 0
+     */
+    public PositionKey(long high, long low) {
+        this(high, low, Symmetry.IDENTITY);
+    }
+
+    /**
+     * Creates a key from its two halves, remembering the symmetry it was taken under.
+     * @param high long
+     * @param low long, which together with high isn't 0
+     * @param symmetry int
+     */
+    private PositionKey(long high, long low, int symmetry) {
+        this.high = high;
+        this.low = low;
+        this.symmetry = symmetry;
+    }
+
+    /**
+     * Returns the key of given board with given mark to move. The key is a 128 bit fingerprint of
+     * the board's size, its blocks in (x + y * width) order and the mark to move, so it doesn't
+     * depend on how the board stores its coins.
+     * @param board Board
+     * @param toMove the mark of the player to move
+     * @return PositionKey
+     */
+    public static PositionKey of(Board board, Board.Mark toMove) {
+        return of(board, toMove, Symmetry.IDENTITY);
+    }
+
+    /**
+     * Returns the key of given board after applying given symmetry to it, with given mark to move.
+     * @param board Board
+     * @param toMove the mark of the player to move
+     * @param symmetry a Symmetry of the board's size
+     * @return PositionKey
+     */
+    public static PositionKey of(Board board, Board.Mark toMove, int symmetry) {
+        int width = board.getBoardWidth();
+        int height = board.getBoardHeight();
+        int inverse = Symmetry.inverse(symmetry);
+        long high = mix(SEED_HIGH ^ (width * 0x100000L + height * 4L + toMove.ordinal()));
+        long low = mix(SEED_LOW ^ (width * 0x100000L + height * 4L + toMove.ordinal()));
+        long word = 0;
+        int packed = 0;
+        for (int block = 0; block < width * height; block++) {
+            int source = Symmetry.transform(inverse, block, width, height);
+            word = (word << 2) | board.getMark(board.square(source % width, source / width)).ordinal();
+            if (++packed == 32) {
+                high = mix(high ^ word);
+                low = mix(low + word);
+                word = 0;
+                packed = 0;
+            }
+        }
+        high = mix(high ^ word ^ packed);
+        low = mix(low + word + packed);
+        // The all zero key marks an empty slot in a PositionStore.
+        return new PositionKey(high, (high | low) == 0 ? 1 : low, symmetry);
+    }
+
+    /**
+     * Returns the key of given board's canonical form, so positions that are rotations or
+     * reflections of each other share a key. getSymmetry() of the result tells which symmetry
+     * turns the board into the one the key stands for.
+     * @param board Board
+     * @param toMove the mark of the player to move
+     * @return PositionKey
+     */
+    public static PositionKey canonical(Board board, Board.Mark toMove) {
+        return of(board, toMove, board.getCanonicalSymmetry());
+    }
+
+    /**
+     * Returns the key of given game's position and player to move.
+     * @param game a started Game
+     * @return PositionKey
+     */
+    public static PositionKey of(Game game) {
+        return of(game.getBoard(), game.getPlayerMark(game.getCurrentTurn()));
+    }
+
+    /**
+     * Returns the symmetry the key was taken under. It isn't part of the key itself.
+     * @return int
+     */
+    public int getSymmetry() {
+        return symmetry;
+    }
+
+    @Override
+    public int compareTo(PositionKey other) {
+        int compared = Long.compareUnsigned(high, other.high);
+        return (compared != 0) ? compared : Long.compareUnsigned(low, other.low);
+    }
+
+    /**
+     * Returns the key's high 64 bits.
+     * @return long
+     */
+    public long getHigh() {
+        return high;
+    }
+
+    /**
+     * Returns the key's low 64 bits.
+     * @return long
+     */
+    public long getLow() {
+        return low;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof PositionKey) {
+            PositionKey key = (PositionKey) obj;
+            return high == key.high && low == key.low;
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (low ^ (low >>> 32));
+    }
+
+    /**
+     * The SplitMix64 finalizer.
+     * @param value long
+     * @return long
+     */
+    private static long mix(long value) {
+        long z = value * 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,305 @@
+package mechanics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class PositionStore implements Closeable {
+
+    // The best move of an entry is proven, not just the most played one.
+    public static final int FLAG_EXACT = 1;
+
+    // "RVPS": the first four bytes of every store file.
+    private static final int MAGIC = 0x52565053;
+    private static final int VERSION = 1;
+    private static final int PAGE_SIZE = 4096;
+    private static final int SLOT_SIZE = 32;
+    private static final int SLOTS_PER_PAGE = PAGE_SIZE / SLOT_SIZE;
+    // Files are mapped in pieces, since one mapping can't pass 2GB.
+    private static final int CHUNK_SHIFT = 30;
+    private static final int PAGES_PER_CHUNK = (1 << CHUNK_SHIFT) / PAGE_SIZE;
+
+    // Slot layout: the key's two halves, then the counts, then the best move and flags.
+    private static final int KEY_HIGH = 0;
+    private static final int KEY_LOW = 8;
+    private static final int VISITS = 16;
+    private static final int BLACK_WINS = 20;
+    private static final int WHITE_WINS = 24;
+    private static final int BEST_MOVE = 28;
+    private static final int FLAGS = 30;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long pages;
+    private final boolean readOnly;
+    private long size;
+
+    /**
+     * The content of one position's entry. Entries are meant to be refilled, so lookups don't
+     * allocate.
+     */
+    public static final class Entry {
+        private int visits;
+        private int blackWins;
+        private int whiteWins;
+        private int bestMove;
+        private int flags;
+
+        /**
+         * Returns the number of games that reached the position.
+         * @return int
+         */
+        public int getVisits() {
+            return visits;
+        }
+
+        /**
+         * Returns the number of those games black won.
+         * @return int
+         */
+        public int getBlackWins() {
+            return blackWins;
+        }
+
+        /**
+         * Returns the number of those games white won.
+         * @return int
+         */
+        public int getWhiteWins() {
+            return whiteWins;
+        }
+
+        /**
+         * Returns the best move as a block index (x + y * width), or -1 if none was stored.
+         * @return int
+         */
+        public int getBestMove() {
+            return bestMove;
+        }
+
+        /**
+         * Returns the entry's flags, like FLAG_EXACT.
+         * @return int
+         */
+        public int getFlags() {
+            return flags;
+        }
+    }
+
+    /**
+     * Opens a mapped store file.
+     * @param channel the open file
+     * @param pages the number of index pages
+     * @param readOnly boolean
+     * @throws IOException if mapping fails
+     */
+    private PositionStore(FileChannel channel, long pages, boolean readOnly) throws IOException {
+        this.channel = channel;
+        this.pages = pages;
+        this.readOnly = readOnly;
+        int chunkCount = (int) ((pages + PAGES_PER_CHUNK - 1) / PAGES_PER_CHUNK);
+        this.chunks = new MappedByteBuffer[chunkCount];
+        FileChannel.MapMode mode = readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE;
+        for (int k = 0; k < chunkCount; k++) {
+            long chunkPages = Math.min(PAGES_PER_CHUNK, pages - (long) k * PAGES_PER_CHUNK);
+            chunks[k] = channel.map(mode, PAGE_SIZE + ((long) k << CHUNK_SHIFT), chunkPages * PAGE_SIZE);
+        }
+        ByteBuffer count = ByteBuffer.allocate(Long.BYTES);
+        channel.read(count, 16);
+        this.size = count.flip().getLong();
+    }
+
+    /**
+     * Creates a new empty store file with room for about given number of positions. The first
+     * page is a header, and every other page holds the slots of the positions hashed to it, so a
+     * lookup reads a single page.
+     * @param path the file, replaced if it exists
+     * @param capacity the number of positions to make room for
+     * @return PositionStore
+     * @throws IOException if the file can't be created
+     */
+    public static PositionStore create(Path path, long capacity) throws IOException {
+        // Pages are filled to about three quarters, so probes stay short.
+        long pages = Long.highestOneBit(Math.max(1, capacity * 4 / 3 / SLOTS_PER_PAGE));
+        if (pages * SLOTS_PER_PAGE * 3 / 4 < capacity) {
+            pages *= 2;
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(PAGE_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(pages).putLong(0);
+        header.clear();
+        channel.write(header, 0);
+        channel.write(ByteBuffer.allocate(1), PAGE_SIZE * (pages + 1) - 1);
+        return new PositionStore(channel, pages, false);
+    }
+
+    /**
+     * Opens an existing store file. Read only stores can be queried by any number of threads at
+     * once; writable stores take one thread at a time.
+     * @param path the file
+     * @param readOnly true to open for queries only
+     * @return PositionStore
+     * @throws IOException if the file can't be opened or isn't a store file
+     */
+    public static PositionStore open(Path path, boolean readOnly) throws IOException {
+        FileChannel channel = readOnly ? FileChannel.open(path, StandardOpenOption.READ)
+                : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(24);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < 24 || header.getInt() != MAGIC || header.getInt() != VERSION) {
+            channel.close();
+            throw new IOException("Not a position store file: " + path);
+        }
+        return new PositionStore(channel, header.getLong(), readOnly);
+    }
+
+    /**
+     * Returns the number of positions in the store.
+     * @return long
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Fill given entry with the entry of given position.
+     * @param key PositionKey
+     * @param entry Entry to refill
+     * @return true if the position was found, false if it isn't in the store.
+     */
+    public boolean get(PositionKey key, Entry entry) {
+        if (readOnly) {
+            return read(key, entry);
+        }
+        synchronized (this) {
+            return read(key, entry);
+        }
+    }
+
+    /**
+     * Add game results to given position's entry, creating it if needed.
+     * @param key PositionKey
+     * @param visits number of games to add
+     * @param blackWins number of them black won
+     * @param whiteWins number of them white won
+     */
+    public synchronized void addResults(PositionKey key, int visits, int blackWins, int whiteWins) {
+        long offset = findSlot(key, true);
+        MappedByteBuffer chunk = chunk(offset);
+        int index = (int) (offset & ((1L << CHUNK_SHIFT) - 1));
+        chunk.putInt(index + VISITS, chunk.getInt(index + VISITS) + visits);
+        chunk.putInt(index + BLACK_WINS, chunk.getInt(index + BLACK_WINS) + blackWins);
+        chunk.putInt(index + WHITE_WINS, chunk.getInt(index + WHITE_WINS) + whiteWins);
+    }
+
+    /**
+     * Set the best move of given position's entry, creating it if needed.
+     * @param key PositionKey
+     * @param move block index (x + y * width), or -1 for none
+     * @param flags like FLAG_EXACT
+     */
+    public synchronized void setBestMove(PositionKey key, int move, int flags) {
+        long offset = findSlot(key, true);
+        MappedByteBuffer chunk = chunk(offset);
+        int index = (int) (offset & ((1L << CHUNK_SHIFT) - 1));
+        chunk.putShort(index + BEST_MOVE, (short) (move + 1));
+        chunk.putShort(index + FLAGS, (short) flags);
+    }
+
+    /**
+     * Write every change to the file.
+     * @throws IOException if writing fails
+     */
+    public synchronized void force() throws IOException {
+        if (readOnly) {
+            return;
+        }
+        ByteBuffer count = ByteBuffer.allocate(Long.BYTES);
+        count.putLong(size).flip();
+        channel.write(count, 16);
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            force();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Fill given entry with the entry of given position.
+     * @param key PositionKey
+     * @param entry Entry to refill
+     * @return true if the position was found.
+     */
+    private boolean read(PositionKey key, Entry entry) {
+        long offset = findSlot(key, false);
+        if (offset < 0) {
+            return false;
+        }
+        MappedByteBuffer chunk = chunk(offset);
+        int index = (int) (offset & ((1L << CHUNK_SHIFT) - 1));
+        entry.visits = chunk.getInt(index + VISITS);
+        entry.blackWins = chunk.getInt(index + BLACK_WINS);
+        entry.whiteWins = chunk.getInt(index + WHITE_WINS);
+        entry.bestMove = (chunk.getShort(index + BEST_MOVE) & 0xffff) - 1;
+        entry.flags = chunk.getShort(index + FLAGS) & 0xffff;
+        return true;
+    }
+
+    /**
+     * Returns the offset of given position's slot from the first index page. The position is
+     * probed for linearly inside its own page only.
+     * @param key PositionKey
+     * @param create true to claim an empty slot if the position isn't in the store
+     * @return the slot's offset, or -1 if the position isn't in the store and create is false.
+     */
+    private long findSlot(PositionKey key, boolean create) {
+        long page = key.getHigh() & (pages - 1);
+        int first = (int) (key.getLow() >>> 57) & (SLOTS_PER_PAGE - 1);
+        long pageOffset = page * PAGE_SIZE;
+        MappedByteBuffer chunk = chunk(pageOffset);
+        int pageIndex = (int) (pageOffset & ((1L << CHUNK_SHIFT) - 1));
+        for (int probe = 0; probe < SLOTS_PER_PAGE; probe++) {
+            int index = pageIndex + ((first + probe) & (SLOTS_PER_PAGE - 1)) * SLOT_SIZE;
+            long high = chunk.getLong(index + KEY_HIGH);
+            long low = chunk.getLong(index + KEY_LOW);
+            if (high == key.getHigh() && low == key.getLow()) {
+                return pageOffset + (index - pageIndex);
+            }
+            if (high == 0 && low == 0) {
+                if (!create) {
+                    return -1;
+                }
+                chunk.putLong(index + KEY_HIGH, key.getHigh());
+                chunk.putLong(index + KEY_LOW, key.getLow());
+                size++;
+                return pageOffset + (index - pageIndex);
+            }
+        }
+        if (create) {
+            throw new IllegalStateException("Position store page " + page + " is full; create a bigger store");
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the mapped chunk holding given offset.
+     * @param offset offset from the first index page
+     * @return MappedByteBuffer
+     */
+    private MappedByteBuffer chunk(long offset) {
+        return chunks[(int) (offset >>> CHUNK_SHIFT)];
+    }
+}
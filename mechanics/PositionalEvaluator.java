@@ -0,0 +1,105 @@
+package mechanics;
+
+public class PositionalEvaluator implements Evaluator {
+
+    private static final int CORNER_WEIGHT = 100;
+    private static final int X_SQUARE_WEIGHT = -50;
+    private static final int C_SQUARE_WEIGHT = -20;
+    private static final int EDGE_WEIGHT = 10;
+    private static final int INNER_EDGE_WEIGHT = -5;
+    private static final int CENTER_WEIGHT = 1;
+    private static final int MOBILITY_WEIGHT = 5;
+
+    private int[] weights;
+    private int[] moves;
+    private int width;
+    private int height;
+
+    /**
+     * Creates a new evaluator that scores coins by where they stand, plus the mobility of both
+     * players. It keeps tables of the last board size it saw, so it isn't thread safe.
+     */
+    public PositionalEvaluator() {
+        this.weights = new int[0];
+        this.moves = new int[0];
+        this.width = 0;
+        this.height = 0;
+    }
+
+    @Override
+    public int evaluate(Game game) {
+        Board board = game.getBoard();
+        // Weights are kept by square, so boards of the same size laid out with another stride,
+        // like a BitSetBoard and an ArrayBoard, need weights of their own.
+        if (board.getBoardWidth() != width || board.getBoardHeight() != height
+                || board.getSquareCount() != weights.length) {
+            initializeWeights(board);
+        }
+        Board.Mark own = game.getPlayerMark(game.getCurrentTurn());
+        int score = 0;
+        for (int j = 0; j < height; j++) {
+            for (int i = 0; i < width; i++) {
+                int square = board.square(i, j);
+                Board.Mark mark = board.getMark(square);
+                if (mark == own) {
+                    score += weights[square];
+                } else if (mark != Board.Mark.BLANK) {
+                    score -= weights[square];
+                }
+            }
+        }
+        int mobility = game.getMoveCount() - board.getLegalMoves(Board.opposite(own), moves);
+        return score + MOBILITY_WEIGHT * mobility;
+    }
+
+    @Override
+    public Evaluator copy() {
+        return new PositionalEvaluator();
+    }
+
+    /**
+     * Build the square weights of given board's size. Corners are worth the most, and the
+     * squares that give the opponent access to a corner cost the most.
+     * @param board Board
+     */
+    private void initializeWeights(Board board) {
+        this.width = board.getBoardWidth();
+        this.height = board.getBoardHeight();
+        this.weights = new int[board.getSquareCount()];
+        this.moves = new int[width * height];
+        for (int j = 0; j < height; j++) {
+            for (int i = 0; i < width; i++) {
+                weights[board.square(i, j)] = squareWeight(i, j, width, height);
+            }
+        }
+    }
+
+    /**
+     * Returns the weight of a coin on given block of a board of given size.
+     * @param i block's x parameter
+     * @param j block's y parameter
+     * @param width the board's width
+     * @param height the board's height
+     * @return int
+     */
+    static int squareWeight(int i, int j, int width, int height) {
+        int dx = Math.min(i, width - 1 - i);
+        int dy = Math.min(j, height - 1 - j);
+        if (dx == 0 && dy == 0) {
+            return CORNER_WEIGHT;
+        }
+        if (dx == 1 && dy == 1) {
+            return X_SQUARE_WEIGHT;
+        }
+        if (dx + dy == 1) {
+            return C_SQUARE_WEIGHT;
+        }
+        if (dx == 0 || dy == 0) {
+            return EDGE_WEIGHT;
+        }
+        if (dx == 1 || dy == 1) {
+            return INNER_EDGE_WEIGHT;
+        }
+        return CENTER_WEIGHT;
+    }
+}
@@ -0,0 +1,30 @@
+package mechanics;
+
+import java.util.Random;
+
+public class RandomPlayer implements ComputerPlayer {
+
+    private final Random random;
+    private int[] moves;
+
+    /**
+     * Creates a new player choosing uniformly among the available moves.
+     * @param seed seed of the player's random numbers, so games can be replayed.
+     */
+    public RandomPlayer(long seed) {
+        this.random = new Random(seed);
+        this.moves = new int[0];
+    }
+
+    @Override
+    public Point chooseMove(Game game) {
+        if (game.getMoveCount() == 0) {
+            return null;
+        }
+        if (moves.length < game.getMoveCount()) {
+            this.moves = new int[game.getWidth() * game.getHeight()];
+        }
+        int count = game.getLegalMoves(moves);
+        return game.getBoard().toPoint(moves[random.nextInt(count)]);
+    }
+}
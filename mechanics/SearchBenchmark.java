@@ -0,0 +1,94 @@
+package mechanics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class SearchBenchmark {
+
+    private static final int SIZE = 8;
+    private static final int OPENING_MOVES = 20;
+    private static final long SEED = 20171218L;
+    private static final int DEFAULT_REPETITIONS = 5;
+
+    /**
+     * Measure the time parallel search takes to reach a fixed depth on 8x8 midgame positions,
+     * for 1 to N threads, and print the speedup over a single thread. Every thread count first
+     * runs once untimed, so the JIT compiled the search before anything is timed, and then the
+     * median of several timed runs is reported.
+     * Arguments: [max threads] [depth] [positions] [repetitions], defaulting to every core, 9, 8
+     * and 5.
+     * @param args String[]
+     */
+    public static void main(String[] args) {
+        int maxThreads = (args.length > 0) ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth = (args.length > 1) ? Integer.parseInt(args[1]) : 9;
+        int positions = (args.length > 2) ? Integer.parseInt(args[2]) : 8;
+        int repetitions = (args.length > 3) ? Math.max(1, Integer.parseInt(args[3])) : DEFAULT_REPETITIONS;
+        List<Game> games = midgamePositions(positions);
+        System.out.println("threads     time(ms)        nodes     nodes/sec   speedup");
+        long singleThreadNanos = 0;
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            AlphaBetaPlayer player = new AlphaBetaPlayer(Long.MAX_VALUE / 2000000L);
+            player.setMaxDepth(depth);
+            player.setThreads(threads);
+            run(player, games);
+            long[][] runs = new long[repetitions][];
+            for (int k = 0; k < repetitions; k++) {
+                runs[k] = run(player, games);
+            }
+            Arrays.sort(runs, (first, second) -> Long.compare(first[0], second[0]));
+            long nanos = runs[repetitions / 2][0];
+            long nodes = runs[repetitions / 2][1];
+            if (threads == 1) {
+                singleThreadNanos = nanos;
+            }
+            System.out.printf("%7d %12d %12d %13d %9.2f%n", threads, nanos / 1000000, nodes,
+                    nodes * 1000000000L / Math.max(1, nanos), (double) singleThreadNanos / Math.max(1, nanos));
+            player.setThreads(1);
+        }
+    }
+
+    /**
+     * Search every given game once with an empty table.
+     * @param player AlphaBetaPlayer
+     * @param games started Games
+     * @return long[], the total time in nanoseconds and the total nodes
+     */
+    private static long[] run(AlphaBetaPlayer player, List<Game> games) {
+        long nanos = 0;
+        long nodes = 0;
+        for (Game game : games) {
+            player.getTranspositionTable().clear();
+            player.chooseMove(game);
+            nanos += player.getLastSearch().getNanos();
+            nodes += player.getLastSearch().getNodes();
+        }
+        return new long[] {nanos, nodes};
+    }
+
+    /**
+     * Returns games after a fixed number of random opening moves, the same on every run.
+     * @param count number of games
+     * @return List
+     */
+    private static List<Game> midgamePositions(int count) {
+        Random random = new Random(SEED);
+        List<Game> games = new ArrayList<>();
+        int[] moves = new int[SIZE * SIZE];
+        while (games.size() < count) {
+            Game game = new Game();
+            game.initialize(SIZE, SIZE, Game.Player.PLAYER1);
+            game.start();
+            for (int k = 0; k < OPENING_MOVES && !game.isGameOver(); k++) {
+                int moveCount = game.getLegalMoves(moves);
+                game.makeMove(moves[random.nextInt(moveCount)]);
+            }
+            if (!game.isGameOver()) {
+                games.add(game);
+            }
+        }
+        return games;
+    }
+}
@@ -0,0 +1,84 @@
+package mechanics;
+
+public class SearchInfo {
+
+    private final int depth;
+    private final long nodes;
+    private final long nanos;
+    private final int score;
+    private final Point move;
+
+    /**
+     * Creates a new report of a finished search.
+     * @param depth the deepest fully searched depth
+     * @param nodes the number of positions visited
+     * @param nanos the time the search took, in nanoseconds
+     * @param score the score of the chosen move for the player to move
+     * @param move the chosen move, or null if there was none
+     */
+    public SearchInfo(int depth, long nodes, long nanos, int score, Point move) {
+        this.depth = depth;
+        this.nodes = nodes;
+        this.nanos = nanos;
+        this.score = score;
+        this.move = move;
+    }
+
+    /**
+     * Returns the deepest fully searched depth.
+     * @return int
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the number of positions visited.
+     * @return long
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the time the search took, in nanoseconds.
+     * @return long
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Returns the score of the chosen move for the player to move.
+     * @return int
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the chosen move.
+     * @return Point
+     */
+    public Point getMove() {
+        return move;
+    }
+
+    /**
+     * Returns the number of positions visited per second.
+     * @return long
+     */
+    public long getNodesPerSecond() {
+        if (nanos <= 0) {
+            return 0;
+        }
+        return nodes * 1000000000L / nanos;
+    }
+
+    @Override
+    public String toString() {
+        String chosen = (move == null) ? "none" : "(" + move.getX() + ", " + move.getY() + ")";
+        return "depth " + depth + ", " + nodes + " nodes in " + (nanos / 1000000) + " ms ("
+                + getNodesPerSecond() + " nodes/sec), score " + score + ", move " + chosen;
+    }
+}
@@ -0,0 +1,227 @@
+package mechanics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class SelfPlay {
+
+    private static final long DEFAULT_SEARCH_TIME = 100;
+
+    private final GameSettings settings;
+    private final ThreadLocal<ComputerPlayer> player1;
+    private final ThreadLocal<ComputerPlayer> player2;
+    private final LongAdder moves;
+    private final LongAdder player1Wins;
+    private final LongAdder player2Wins;
+    private final LongAdder draws;
+    // Sum and number of the per-thread playout rates of every MCTS move.
+    private final LongAdder playoutRates;
+    private final LongAdder mctsMoves;
+    private GameRecordWriter recordWriter;
+
+    /**
+     * Creates a new runner playing games of given settings between the players of given kinds.
+     * Every worker thread gets its own pair of players.
+     * @param settings board size and starting player
+     * @param player1 creates the players of PLAYER1
+     * @param player2 creates the players of PLAYER2
+     */
+    public SelfPlay(GameSettings settings, Supplier<ComputerPlayer> player1, Supplier<ComputerPlayer> player2) {
+        this.settings = settings;
+        this.player1 = ThreadLocal.withInitial(player1);
+        this.player2 = ThreadLocal.withInitial(player2);
+        this.moves = new LongAdder();
+        this.player1Wins = new LongAdder();
+        this.player2Wins = new LongAdder();
+        this.draws = new LongAdder();
+        this.playoutRates = new LongAdder();
+        this.mctsMoves = new LongAdder();
+        this.recordWriter = null;
+    }
+
+    /**
+     * Set the writer every finished game is recorded to.
+     * @param recordWriter GameRecordWriter, or null to keep no records
+     */
+    public void setRecordWriter(GameRecordWriter recordWriter) {
+        this.recordWriter = recordWriter;
+    }
+
+    /**
+     * Play given number of games on given number of threads, printing a line as every game ends
+     * and a summary once all are done.
+     * Arguments: games player1 player2 [threads] [record file] [book file], where a player is
+     * random, greedy, search[:milliseconds per move], pattern[:milliseconds per move] or
+     * mcts[:milliseconds per move]. Board
+     * size and starting player come from the settings file. Games are appended to the record file,
+     * if given; "-" keeps no records. Search and pattern players play from the book, if given.
+     * @param args String[]
+     * @throws IOException if the record file can't be written or the book can't be opened
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: SelfPlay games player1 player2 [threads] [record file|-] [book file]");
+            System.out.println("Players: random, greedy, search[:milliseconds per move], pattern[:milliseconds per move], "
+                    + "mcts[:milliseconds per move]");
+            return;
+        }
+        int games = Integer.parseInt(args[0]);
+        int threads = (args.length > 3) ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        AtomicLong seeds = new AtomicLong(System.nanoTime());
+        OpeningBook book = (args.length > 5) ? OpeningBook.open(Paths.get(args[5])) : null;
+        try {
+            SelfPlay selfPlay = new SelfPlay(GameSettings.loadFromFile(), playerFactory(args[1], seeds, book),
+                    playerFactory(args[2], seeds, book));
+            if (args.length > 4 && !args[4].equals("-")) {
+                try (GameRecordWriter writer = new GameRecordWriter(Paths.get(args[4]), true)) {
+                    selfPlay.setRecordWriter(writer);
+                    selfPlay.run(games, threads);
+                }
+            } else {
+                selfPlay.run(games, threads);
+            }
+        } finally {
+            if (book != null) {
+                book.close();
+            }
+        }
+    }
+
+    /**
+     * Returns a factory of players described by given name.
+     * @param name random, greedy, search[:milliseconds per move], pattern[:milliseconds per move] or
+     *             mcts[:milliseconds per move]
+     * @param seeds source of random player seeds
+     * @param book OpeningBook shared by every search and pattern player, or null
+     * @return Supplier
+     */
+    private static Supplier<ComputerPlayer> playerFactory(String name, AtomicLong seeds, OpeningBook book) {
+        String[] parts = name.split(":");
+        switch (parts[0]) {
+            case "random":
+                return () -> new RandomPlayer(seeds.getAndIncrement());
+            case "greedy":
+                return GreedyPlayer::new;
+            case "search":
+                long time = (parts.length > 1) ? Long.parseLong(parts[1]) : DEFAULT_SEARCH_TIME;
+                return () -> withBook(new AlphaBetaPlayer(time), book);
+            case "pattern":
+                long patternTime = (parts.length > 1) ? Long.parseLong(parts[1]) : DEFAULT_SEARCH_TIME;
+                return () -> withBook(new AlphaBetaPlayer(new PatternEvaluator(), patternTime), book);
+            case "mcts":
+                long mctsTime = (parts.length > 1) ? Long.parseLong(parts[1]) : DEFAULT_SEARCH_TIME;
+                return () -> new MctsPlayer(mctsTime);
+            default:
+                throw new IllegalArgumentException("Unknown player: " + name);
+        }
+    }
+
+    /**
+     * Returns given player after giving it given book.
+     * @param player AlphaBetaPlayer
+     * @param book OpeningBook, or null
+     * @return AlphaBetaPlayer
+     */
+    private static AlphaBetaPlayer withBook(AlphaBetaPlayer player, OpeningBook book) {
+        player.setOpeningBook(book);
+        return player;
+    }
+
+    /**
+     * Play given number of games on given number of threads.
+     * @param games number of games
+     * @param threads number of worker threads
+     */
+    public void run(int games, int threads) {
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, threads));
+        long start = System.nanoTime();
+        List<Future<?>> results = new ArrayList<>();
+        for (int k = 0; k < games; k++) {
+            int index = k;
+            results.add(workers.submit(() -> playGame(index)));
+        }
+        try {
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Self play game failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long played = player1Wins.sum() + player2Wins.sum() + draws.sum();
+        System.out.printf("%d games, %d moves in %.2f s: %.1f games/sec, %.0f moves/sec%n",
+                played, moves.sum(), seconds, played / seconds, moves.sum() / seconds);
+        System.out.printf("PLAYER1 wins %d (%.1f%%), PLAYER2 wins %d (%.1f%%), draws %d (%.1f%%)%n",
+                player1Wins.sum(), percent(player1Wins.sum(), played), player2Wins.sum(),
+                percent(player2Wins.sum(), played), draws.sum(), percent(draws.sum(), played));
+        if (mctsMoves.sum() > 0) {
+            System.out.printf("MCTS: %d moves, %d playouts/sec per thread%n", mctsMoves.sum(),
+                    playoutRates.sum() / mctsMoves.sum());
+        }
+    }
+
+    /**
+     * Play one game to its end and print its result.
+     * @param index the game's number
+     */
+    private void playGame(int index) {
+        Game game = new Game();
+        game.initialize(settings);
+        game.start();
+        int played = 0;
+        while (!game.isGameOver()) {
+            ComputerPlayer player = (game.getCurrentTurn() == Game.Player.PLAYER1) ? player1.get() : player2.get();
+            Point move = player.chooseMove(game);
+            if (move == null || !game.playMove(move)) {
+                throw new IllegalStateException("Player chose an unavailable move in game " + index);
+            }
+            if (player instanceof MctsPlayer) {
+                playoutRates.add(((MctsPlayer) player).getPlayoutsPerSecondPerThread());
+                mctsMoves.increment();
+            }
+            played++;
+        }
+        if (recordWriter != null) {
+            try {
+                recordWriter.write(game);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        int score1 = game.getScore(Game.Player.PLAYER1);
+        int score2 = game.getScore(Game.Player.PLAYER2);
+        moves.add(played);
+        if (score1 > score2) {
+            player1Wins.increment();
+        } else if (score2 > score1) {
+            player2Wins.increment();
+        } else {
+            draws.increment();
+        }
+        System.out.println("game " + index + ": PLAYER1 " + score1 + " - " + score2 + " PLAYER2 in " + played + " moves");
+    }
+
+    /**
+     * Returns given part of given total in percents.
+     * @param part long
+     * @param total long
+     * @return double
+     */
+    private static double percent(long part, long total) {
+        return (total == 0) ? 0 : 100.0 * part / total;
+    }
+}
@@ -0,0 +1,67 @@
+package mechanics;
+
+public final class Symmetry {
+
+    public static final int IDENTITY = 0;
+    // Symmetries from 4 on swap rows and columns, so only square boards have them.
+    private static final int[] INVERSE = {0, 1, 2, 3, 4, 6, 5, 7};
+
+    /**
+     * Symmetries are numbered from 0 to count() - 1:
+     * identity, mirror, flip, half turn, transpose, quarter turn, three quarter turn, anti transpose.
+     */
+    private Symmetry() {
+    }
+
+    /**
+     * Returns the number of symmetries of a board of given size: 8 for a square, else 4.
+     * @param width the board's width
+     * @param height the board's height
+     * @return int
+     */
+    public static int count(int width, int height) {
+        return (width == height) ? 8 : 4;
+    }
+
+    /**
+     * Returns the symmetry that undoes given symmetry.
+     * @param symmetry int
+     * @return int
+     */
+    public static int inverse(int symmetry) {
+        return INVERSE[symmetry];
+    }
+
+    /**
+     * Returns where given block lands when given symmetry is applied to the board.
+     * @param symmetry int
+     * @param block block index (x + y * width)
+     * @param width the board's width
+     * @param height the board's height
+     * @return the block index on the transformed board
+     */
+    public static int transform(int symmetry, int block, int width, int height) {
+        int x = block % width;
+        int y = block / width;
+        int right = width - 1 - x;
+        int bottom = height - 1 - y;
+        switch (symmetry) {
+            case 1:
+                return right + y * width;
+            case 2:
+                return x + bottom * width;
+            case 3:
+                return right + bottom * width;
+            case 4:
+                return y + x * width;
+            case 5:
+                return bottom + x * width;
+            case 6:
+                return y + right * width;
+            case 7:
+                return bottom + right * width;
+            default:
+                return block;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package mechanics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class TranspositionTable {
+
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    // Every entry is two longs, (hash ^ data) then data, and every bucket holds two entries:
+    // the first keeps the deepest search, the second always takes the newest one.
+    private static final int ENTRY_LONGS = 2;
+    private static final int BUCKET_LONGS = 2 * ENTRY_LONGS;
+
+    private final AtomicLongArray table;
+    private final int bucketMask;
+    private volatile int generation;
+
+    /**
+     * Creates a new table taking about given amount of memory, rounded down to a power of two.
+     * It can be shared by any number of searching threads without locks: a torn entry fails the
+     * hash check on the next probe and simply reads as a miss.
+     * @param megabytes int, at least 1
+     */
+    public TranspositionTable(int megabytes) {
+        long bytes = Math.max(1, megabytes) * 1024L * 1024L;
+        long buckets = Long.highestOneBit(bytes / (BUCKET_LONGS * Long.BYTES));
+        buckets = Math.min(buckets, Integer.highestOneBit(Integer.MAX_VALUE / BUCKET_LONGS));
+        this.table = new AtomicLongArray((int) buckets * BUCKET_LONGS);
+        this.bucketMask = (int) buckets - 1;
+        this.generation = 0;
+    }
+
+    /**
+     * Start a new search. Entries of older searches are replaced first.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xff;
+    }
+
+    /**
+     * Remove every entry.
+     */
+    public void clear() {
+        for (int index = 0; index < table.length(); index++) {
+            table.setOpaque(index, 0);
+        }
+    }
+
+    /**
+     * Returns the data stored for given position.
+     * @param hash the position's Zobrist hash
+     * @return the entry's data, or 0 if the position isn't in the table.
+     */
+    public long probe(long hash) {
+        int base = bucket(hash);
+        for (int slot = base; slot < base + BUCKET_LONGS; slot += ENTRY_LONGS) {
+            long data = table.getOpaque(slot + 1);
+            if (data != 0 && (table.getOpaque(slot) ^ data) == hash) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Store the result of a search of given position.
+     * @param hash the position's Zobrist hash
+     * @param depth the searched depth, 0 to 255
+     * @param score the search's score, fitting a short
+     * @param bound EXACT, LOWER or UPPER
+     * @param move the best move's square, or -1 if there was none
+     */
+    public void store(long hash, int depth, int score, int bound, int move) {
+        long data = (move + 1L) & 0xffffL
+                | ((score & 0xffffL) << 16)
+                | ((long) Math.min(depth, 0xff) << 32)
+                | ((long) bound << 40)
+                | ((long) generation << 42);
+        int base = bucket(hash);
+        long deepData = table.getOpaque(base + 1);
+        boolean sameKey = (table.getOpaque(base) ^ deepData) == hash;
+        int slot = base + ENTRY_LONGS;
+        if (deepData == 0 || sameKey || depth >= getDepth(deepData) || getGeneration(deepData) != generation) {
+            slot = base;
+        }
+        table.setOpaque(slot, hash ^ data);
+        table.setOpaque(slot + 1, data);
+    }
+
+    /**
+     * Returns the best move square of given entry data, or -1 if none was stored.
+     * @param data long
+     * @return int
+     */
+    public static int getMove(long data) {
+        return (int) (data & 0xffff) - 1;
+    }
+
+    /**
+     * Returns the score of given entry data.
+     * @param data long
+     * @return int
+     */
+    public static int getScore(long data) {
+        return (short) (data >>> 16);
+    }
+
+    /**
+     * Returns the searched depth of given entry data.
+     * @param data long
+     * @return int
+     */
+    public static int getDepth(long data) {
+        return (int) (data >>> 32) & 0xff;
+    }
+
+    /**
+     * Returns the bound type of given entry data.
+     * @param data long
+     * @return EXACT, LOWER or UPPER
+     */
+    public static int getBound(long data) {
+        return (int) (data >>> 40) & 0x3;
+    }
+
+    /**
+     * Returns the search generation of given entry data.
+     * @param data long
+     * @return int
+     */
+    private static int getGeneration(long data) {
+        return (int) (data >>> 42) & 0xff;
+    }
+
+    /**
+     * Returns the index of the first long of given position's bucket.
+     * @param hash long
+     * @return int
+     */
+    private int bucket(long hash) {
+        return ((int) (hash ^ (hash >>> 32)) & bucketMask) * BUCKET_LONGS;
+    }
+}
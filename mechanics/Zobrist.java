@@ -0,0 +1,81 @@
+package mechanics;
+
+public class Zobrist {
+
+    // Xored into the hash while PLAYER2 is to move.
+    public static final long SIDE_KEY = mix(-1);
+
+    /**
+     * Zobrist keys are a pure function of the square and mark, so hashes of the same position
+     * match across games, boards and runs.
+     */
+    private Zobrist() {
+    }
+
+    /**
+     * Returns the key of given mark standing on given square.
+     * @param square int
+     * @param mark BLACK or WHITE
+     * @return long
+     */
+    public static long key(int square, Board.Mark mark) {
+        return mix(square * 2L + (mark == Board.Mark.WHITE ? 1 : 0));
+    }
+
+    /**
+     * Returns the keys of every square of given board, with the key of (square, mark) at
+     * index (square * 2) for BLACK and (square * 2 + 1) for WHITE.
+     * @param board Board
+     * @return long[]
+     */
+    public static long[] keys(Board board) {
+        long[] keys = new long[board.getSquareCount() * 2];
+        for (int index = 0; index < keys.length; index++) {
+            keys[index] = mix(index);
+        }
+        return keys;
+    }
+
+    /**
+     * Returns the hash of every coin on given board.
+     * @param board Board
+     * @return long
+     */
+    public static long hash(Board board) {
+        long hash = 0;
+        for (int j = 0; j < board.getBoardHeight(); j++) {
+            for (int i = 0; i < board.getBoardWidth(); i++) {
+                int square = board.square(i, j);
+                Board.Mark mark = board.getMark(square);
+                if (mark != Board.Mark.BLANK) {
+                    hash ^= key(square, mark);
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the hash of every coin on given board and the player to move, as Game keeps it:
+     * the side key is in while WHITE, PLAYER2's mark, is to move.
+     * @param board Board
+     * @param toMove the mark of the player to move
+     * @return long
+     */
+    public static long hash(Board board, Board.Mark toMove) {
+        long hash = hash(board);
+        return (toMove == Board.Mark.WHITE) ? hash ^ SIDE_KEY : hash;
+    }
+
+    /**
+     * The SplitMix64 finalizer: spreads consecutive numbers over unrelated 64 bit values.
+     * @param value long
+     * @return long
+     */
+    private static long mix(long value) {
+        long z = value * 0x9e3779b97f4a7c15L + 0x632be59bd9b4e019L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
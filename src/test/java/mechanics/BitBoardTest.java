@@ -0,0 +1,112 @@
+package mechanics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BitBoardTest {
+
+    private static final long SEED = 20171218L;
+    private static final int POSITIONS = 200;
+    private static final int SIZE = BitBoard.SIZE;
+    private static final int SYMMETRIES = 8;
+
+    /**
+     * Returns a random 8x8 BitBoard: a position of a random game, or every other time random
+     * marks on every block, which needn't be reachable but has fewer symmetries.
+     * @param random Random
+     * @param position the position's number
+     * @return BitBoard
+     */
+    private static BitBoard randomBoard(Random random, int position) {
+        BitBoard board = new BitBoard();
+        if (position % 2 == 0) {
+            Game game = Perft.randomPosition(SIZE, random);
+            copyMarks(game.getBoard(), board);
+        } else {
+            Board.Mark[] marks = Board.Mark.values();
+            for (int j = 0; j < SIZE; j++) {
+                for (int i = 0; i < SIZE; i++) {
+                    board.setMark(i, j, marks[random.nextInt(marks.length)]);
+                }
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Copy the marks of one board onto another of the same size.
+     * @param from Board
+     * @param to Board
+     */
+    private static void copyMarks(Board from, Board to) {
+        for (int j = 0; j < SIZE; j++) {
+            for (int i = 0; i < SIZE; i++) {
+                to.setMark(i, j, from.getMark(from.square(i, j)));
+            }
+        }
+    }
+
+    /**
+     * Check that two boards hold the same mark on every block.
+     * @param expected Board
+     * @param actual Board
+     * @param description String
+     */
+    private static void assertSameMarks(Board expected, Board actual, String description) {
+        for (int j = 0; j < SIZE; j++) {
+            for (int i = 0; i < SIZE; i++) {
+                assertEquals(expected.getMark(expected.square(i, j)), actual.getMark(actual.square(i, j)),
+                        description + " at (" + i + ", " + j + ")");
+            }
+        }
+    }
+
+    /**
+     * Check BitBoard's bit tricks against the block by block transforms of the other boards, for
+     * every symmetry of random positions, and that the inverse symmetry turns an image back.
+     */
+    @Test
+    public void transformsMatchGenericBoards() {
+        Random random = new Random(SEED);
+        for (int position = 0; position < POSITIONS; position++) {
+            BitBoard board = randomBoard(random, position);
+            Board array = new ArrayBoard(SIZE, SIZE);
+            Board bitSet = new BitSetBoard(SIZE, SIZE);
+            copyMarks(board, array);
+            copyMarks(board, bitSet);
+            for (int symmetry = 0; symmetry < SYMMETRIES; symmetry++) {
+                String description = board + " symmetry " + symmetry;
+                Board image = board.transform(symmetry);
+                assertSameMarks(array.transform(symmetry), image, description + ", ArrayBoard");
+                assertSameMarks(bitSet.transform(symmetry), image, description + ", BitSetBoard");
+                assertSameMarks(board, image.transform(Symmetry.inverse(symmetry)), description + ", inverse");
+            }
+        }
+    }
+
+    /**
+     * Check that BitBoard picks the same canonical symmetry as the other boards, and that every
+     * symmetric image of a position has the same canonical form.
+     */
+    @Test
+    public void canonicalSymmetryMatchesGenericBoards() {
+        Random random = new Random(SEED);
+        for (int position = 0; position < POSITIONS; position++) {
+            BitBoard board = randomBoard(random, position);
+            Board array = new ArrayBoard(SIZE, SIZE);
+            Board bitSet = new BitSetBoard(SIZE, SIZE);
+            copyMarks(board, array);
+            copyMarks(board, bitSet);
+            String description = board.toString();
+            assertEquals(array.getCanonicalSymmetry(), board.getCanonicalSymmetry(), description + ", ArrayBoard");
+            assertEquals(bitSet.getCanonicalSymmetry(), board.getCanonicalSymmetry(), description + ", BitSetBoard");
+            Board canonical = board.canonical();
+            for (int symmetry = 0; symmetry < SYMMETRIES; symmetry++) {
+                assertSameMarks(canonical, board.transform(symmetry).canonical(), description + " symmetry " + symmetry);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package mechanics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EndgameSolverTest {
+
+    private static final long SEED = 20171218L;
+    private static final int MIN_EMPTIES = 6;
+    private static final int MAX_EMPTIES = 14;
+    private static final int POSITIONS = 3;
+
+    /**
+     * Returns the final disc differential of given game for its current player, by a plain
+     * alpha-beta search through Game's own moves, sharing no code with the solver.
+     * @param game a started Game, left as it was
+     * @param alpha lower bound
+     * @param beta upper bound
+     * @return int, exact if it lies strictly between alpha and beta
+     */
+    private static int reference(Game game, int alpha, int beta) {
+        Game.Player mover = game.getCurrentTurn();
+        if (game.isGameOver()) {
+            return game.getScore(mover) - game.getScore(game.getOppositePlayer(mover));
+        }
+        int[] moves = new int[game.getMoveCount()];
+        int count = game.getLegalMoves(moves);
+        int best = -Integer.MAX_VALUE;
+        for (int k = 0; k < count && alpha < beta; k++) {
+            game.makeMove(moves[k]);
+            int score;
+            if (game.isGameOver()) {
+                score = game.getScore(mover) - game.getScore(game.getOppositePlayer(mover));
+            } else if (game.getCurrentTurn() == mover) {
+                // The opponent had to pass, so the same player moves again.
+                score = reference(game, alpha, beta);
+            } else {
+                score = -reference(game, -beta, -alpha);
+            }
+            game.unmakeMove();
+            best = Math.max(best, score);
+            alpha = Math.max(alpha, score);
+        }
+        return best;
+    }
+
+    /**
+     * Returns an 8x8 game after random moves, with given number of empties left and its game not
+     * over, or null if the random game ended before.
+     * @param empties int
+     * @param random Random
+     * @return Game
+     */
+    private static Game endgame(int empties, Random random) {
+        Game game = new Game();
+        game.initialize(BitBoard.SIZE, BitBoard.SIZE, Game.Player.PLAYER1);
+        game.start();
+        int[] moves = new int[BitBoard.SIZE * BitBoard.SIZE];
+        while (!game.isGameOver() && game.getBoard().count(Board.Mark.BLANK) > empties) {
+            game.makeMove(moves[random.nextInt(game.getLegalMoves(moves))]);
+        }
+        return game.isGameOver() ? null : game;
+    }
+
+    /**
+     * Returns the solver's table entry of given game's position.
+     * @param table the solver's TranspositionTable
+     * @param game a started Game
+     * @return long, 0 if there's none
+     */
+    private static long rootEntry(TranspositionTable table, Game game) {
+        return table.probe(Zobrist.hash(game.getBoard(), game.getPlayerMark(game.getCurrentTurn())));
+    }
+
+    /**
+     * Check the solver's exact scores and bounds of random endgames against the plain search,
+     * with the table kept from one solve to the next, and that its best move keeps the score.
+     * A full solve leaves the root's exact score in the table, even when it started from it.
+     */
+    @Test
+    public void solvesMatchReference() {
+        Random random = new Random(SEED);
+        TranspositionTable table = new TranspositionTable(16);
+        EndgameSolver solver = new EndgameSolver(table);
+        int area = BitBoard.SIZE * BitBoard.SIZE;
+        for (int empties = MIN_EMPTIES; empties <= MAX_EMPTIES; empties++) {
+            for (int position = 0; position < POSITIONS; position++) {
+                Game game = endgame(empties, random);
+                if (game == null) {
+                    continue;
+                }
+                String description = empties + " empties " + game.getBoard();
+                long hash = game.getHash();
+                int exact = reference(game, -area - 1, area + 1);
+                assertEquals(exact, solver.solve(game), description);
+                assertEquals(hash, game.getHash(), description);
+
+                int best = solver.getBestMove();
+                Game.Player mover = game.getCurrentTurn();
+                assertTrue(game.makeMove(best), description + ": best move " + best);
+                int afterBest = game.isGameOver()
+                        ? game.getScore(mover) - game.getScore(game.getOppositePlayer(mover))
+                        : (game.getCurrentTurn() == mover) ? solver.solve(game) : -solver.solve(game);
+                game.unmakeMove();
+                assertEquals(exact, afterBest, description + ": best move " + best);
+
+                assertTrue(solver.solve(game, exact - 4, exact - 1) >= exact - 1, description + ", window below");
+                assertTrue(solver.solve(game, exact - 1, exact) >= exact, description + ", null window below");
+                assertEquals(exact, solver.solve(game, exact - 1, exact + 1), description + ", window around");
+                assertEquals(exact, solver.solve(game, exact - 8, exact + 8), description + ", wide window");
+                assertTrue(solver.solve(game, exact, exact + 1) <= exact, description + ", null window above");
+                assertTrue(solver.solve(game, exact + 1, exact + 4) <= exact + 1, description + ", window above");
+                assertEquals(exact, solver.solve(game), description + ", solved again");
+                assertEquals(hash, game.getHash(), description);
+                long entry = rootEntry(table, game);
+                if (entry != 0) {
+                    assertEquals(TranspositionTable.EXACT, TranspositionTable.getBound(entry), description);
+                    assertEquals(exact, TranspositionTable.getScore(entry), description);
+                    assertEquals(exact, solver.solve(game), description + ", solved from the table");
+                    entry = rootEntry(table, game);
+                    assertEquals(TranspositionTable.EXACT, TranspositionTable.getBound(entry), description);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package mechanics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameRecordTest {
+
+    private static final long SEED = 20171218L;
+
+    /**
+     * Check that records of random games replay to the same final position, on square and
+     * non-square boards and with either starting player.
+     */
+    @Test
+    public void randomGamesReplay() {
+        Random random = new Random(SEED);
+        int[][] sizes = {{4, 4}, {6, 6}, {8, 8}, {10, 4}, {4, 10}};
+        for (int[] size : sizes) {
+            for (Game.Player starter : Game.Player.values()) {
+                Game game = new Game();
+                game.initialize(size[0], size[1], starter);
+                game.start();
+                int[] moves = new int[size[0] * size[1]];
+                while (!game.isGameOver()) {
+                    game.makeMove(moves[random.nextInt(game.getLegalMoves(moves))]);
+                }
+                GameRecord record = GameRecord.of(game);
+                assertEquals(starter, record.getStartingPlayer());
+                Game replayed = new Game();
+                String description = size[0] + "x" + size[1] + " " + starter;
+                assertTrue(record.replay(replayed), description);
+                assertEquals(game.getHash(), replayed.getHash(), description);
+                assertEquals(game.getScore(Game.Player.PLAYER1), replayed.getScore(Game.Player.PLAYER1), description);
+            }
+        }
+    }
+
+    /**
+     * Check that a starting player who must pass at once is recorded, with a leading pass.
+     */
+    @Test
+    public void startingPassIsRecorded() {
+        Game game = new Game();
+        game.initialize(Board.parse("XO-/---"), Game.Player.PLAYER2);
+        game.start();
+        assertEquals(Game.Player.PLAYER1, game.getCurrentTurn());
+        int[] moves = new int[6];
+        game.getLegalMoves(moves);
+        game.makeMove(moves[0]);
+        GameRecord record = GameRecord.of(game);
+        assertEquals(Game.Player.PLAYER2, record.getStartingPlayer());
+        assertEquals(2, record.getLength());
+        assertEquals(GameRecord.PASS, record.getMove(0));
+        assertEquals(2, record.getMove(1));
+    }
+
+    /**
+     * Check that records of unsupported sizes, or with moves off the board, are corrupt.
+     */
+    @Test
+    public void corruptRecordsFail() {
+        GameRecord record = new GameRecord();
+        Game game = new Game();
+        int[][] sizes = {{0, 8}, {8, 0}, {1, 8}, {GameRecord.MAX_SIZE + 1, 8}, {8, GameRecord.MAX_SIZE + 1}};
+        for (int[] size : sizes) {
+            record.reset(size[0], size[1], Game.Player.PLAYER1);
+            assertFalse(record.replay(game), size[0] + "x" + size[1]);
+        }
+        record.reset(8, 8, Game.Player.PLAYER1);
+        record.addMove(3, 2);
+        record.addMove(0, 8);
+        assertFalse(record.replay(game), "move past the last block");
+        record.reset(8, 8, Game.Player.PLAYER1);
+        record.addMove(-5, 0);
+        assertFalse(record.replay(game), "negative move");
+        record.reset(8, 8, Game.Player.PLAYER1);
+        record.addMove(3, 2);
+        assertTrue(record.replay(game));
+    }
+}
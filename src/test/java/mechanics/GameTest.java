@@ -0,0 +1,90 @@
+package mechanics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameTest {
+
+    private static final long SEED = 20171218L;
+    private static final int GAMES = 20;
+
+    /**
+     * Returns everything a take back must restore of given game: the board, the player to move,
+     * the scores and the legal moves, both as squares and as points.
+     * @param game a started Game
+     * @return String
+     */
+    private static String state(Game game) {
+        int[] moves = new int[game.getWidth() * game.getHeight()];
+        int count = game.getLegalMoves(moves);
+        int[] sorted = Arrays.copyOf(moves, count);
+        Arrays.sort(sorted);
+        List<String> points = new ArrayList<>();
+        for (Point point : game.getAvailableMoves()) {
+            points.add(point.getX() + "," + point.getY());
+        }
+        points.sort(null);
+        return game.getBoard() + " " + game.getCurrentTurn() + " " + game.getScore(Game.Player.PLAYER1) + "-"
+                + game.getScore(Game.Player.PLAYER2) + " " + game.getMoveCount() + " " + Arrays.toString(sorted)
+                + " " + points + " " + game.isGameOver();
+    }
+
+    /**
+     * Check that given game's incremental hash equals the hash of its board and player to move.
+     * @param game a started Game
+     * @param description String
+     */
+    private static void assertHash(Game game, String description) {
+        assertEquals(Zobrist.hash(game.getBoard(), game.getPlayerMark(game.getCurrentTurn())), game.getHash(),
+                description);
+    }
+
+    /**
+     * Play random games to their end and take every move back, checking the hash after every move
+     * and take back, and that every take back restores the position exactly as it was.
+     * Small and narrow boards make forced passes common.
+     */
+    @Test
+    public void makeAndUnmakeKeepHashAndState() {
+        Random random = new Random(SEED);
+        int[][] sizes = {{4, 4}, {6, 6}, {8, 8}, {10, 4}, {12, 12}};
+        int passes = 0;
+        for (int[] size : sizes) {
+            for (int played = 0; played < GAMES; played++) {
+                Game game = new Game();
+                game.initialize(size[0], size[1], (played % 2 == 0) ? Game.Player.PLAYER1 : Game.Player.PLAYER2);
+                game.start();
+                String description = size[0] + "x" + size[1] + " game " + played;
+                assertHash(game, description + " at the start");
+                List<String> states = new ArrayList<>();
+                int[] moves = new int[size[0] * size[1]];
+                while (!game.isGameOver()) {
+                    states.add(state(game));
+                    Game.Player mover = game.getCurrentTurn();
+                    assertTrue(game.makeMove(moves[random.nextInt(game.getLegalMoves(moves))]));
+                    if (!game.isGameOver() && game.getCurrentTurn() == mover) {
+                        passes++;
+                    }
+                    assertHash(game, description + " after move " + states.size());
+                }
+                while (game.getHistorySize() > 0) {
+                    assertTrue(game.unmakeMove());
+                    assertHash(game, description + " after taking back move " + (game.getHistorySize() + 1));
+                    assertEquals(states.get(game.getHistorySize()), state(game),
+                            description + " after taking back move " + (game.getHistorySize() + 1));
+                }
+                assertFalse(game.unmakeMove(), description + ": nothing left to take back");
+                assertEquals(states.get(0), state(game), description + " back at the start");
+            }
+        }
+        assertTrue(passes > 0, "no game had a forced pass");
+    }
+}
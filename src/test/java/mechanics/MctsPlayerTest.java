@@ -0,0 +1,62 @@
+package mechanics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MctsPlayerTest {
+
+    private static final long SEED = 20171218L;
+    private static final int PLAYOUTS = 300;
+    // Long enough that the playout budget always stops the search first.
+    private static final long TIME_BUDGET = 60000;
+
+    /**
+     * Check that a playout limited search returns a legal move of random positions, and plays
+     * exactly its budget, on given number of threads.
+     * @param threads int
+     */
+    private static void checkLegalMoves(int threads) {
+        MctsPlayer player = new MctsPlayer(TIME_BUDGET);
+        player.setPlayoutBudget(PLAYOUTS);
+        player.setThreads(threads);
+        Random random = new Random(SEED);
+        for (int size : new int[] {6, 8, 10}) {
+            for (int position = 0; position < 4; position++) {
+                Game game = Perft.randomPosition(size, random);
+                if (game.isGameOver()) {
+                    continue;
+                }
+                long hash = game.getHash();
+                Point move = player.chooseMove(game);
+                String description = size + "x" + size + " " + game.getBoard() + ", " + threads + " threads";
+                assertNotNull(move, description);
+                assertTrue(game.isLegal(move.getX(), move.getY()), description + ": " + move);
+                assertEquals(hash, game.getHash(), description + ": the game was changed");
+                if (game.getMoveCount() > 1) {
+                    assertEquals(PLAYOUTS, player.getLastSearch().getNodes(), description);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check a single thread search.
+     */
+    @Test
+    public void budgetLimitedSearchIsLegal() {
+        checkLegalMoves(1);
+    }
+
+    /**
+     * Check a search sharing its tree between threads.
+     */
+    @Test
+    public void parallelSearchIsLegal() {
+        checkLegalMoves(3);
+    }
+}
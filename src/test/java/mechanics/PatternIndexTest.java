@@ -0,0 +1,42 @@
+package mechanics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class PatternIndexTest {
+
+    private static final long SEED = 20171218L;
+    private static final int STEPS = 3000;
+
+    /**
+     * Check the indices Game keeps up to date through its moves and take backs against indices
+     * built from scratch, after every step of a random walk of moves, passes and take backs.
+     */
+    @Test
+    public void incrementalIndicesMatchFreshOnes() {
+        Random random = new Random(SEED);
+        for (int size : new int[] {6, 8, 10}) {
+            Game game = new Game();
+            game.initialize(size, size, Game.Player.PLAYER1);
+            game.start();
+            PatternIndex index = game.getPatternIndex();
+            assertNotNull(index, size + "x" + size);
+            Patterns patterns = index.getPatterns();
+            int[] moves = new int[size * size];
+            for (int step = 0; step < STEPS; step++) {
+                // Moves are more likely than take backs, so the walk reaches the end of games.
+                if (game.isGameOver() || (game.getHistorySize() > 0 && random.nextInt(3) == 0)) {
+                    game.unmakeMove();
+                } else {
+                    game.makeMove(moves[random.nextInt(game.getLegalMoves(moves))]);
+                }
+                assertArrayEquals(new PatternIndex(game.getBoard(), patterns).getIndices(),
+                        game.getPatternIndex().getIndices(), size + "x" + size + " step " + step + " " + game.getBoard());
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package mechanics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static mechanics.Perft.STANDARD_COUNTS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PerftTest {
+
+    private static final int HASH_SIZE = 16;
+    private static final int THREADS = 2;
+    private static final long SEED = 20171218L;
+
+    /**
+     * Returns a started game of the standard 8x8 start, checking its scores on every move.
+     * @return Game
+     */
+    private static Game standardGame() {
+        Game game = new Game();
+        game.initialize(8, 8, Game.Player.PLAYER1);
+        game.start();
+        game.setScoreChecking(true);
+        return game;
+    }
+
+    /**
+     * Check the plain counts of the standard start against the known values.
+     */
+    @Test
+    public void standardCountsPlain() {
+        for (int depth = 1; depth < STANDARD_COUNTS.length; depth++) {
+            assertEquals(STANDARD_COUNTS[depth], new Perft(0).count(standardGame(), depth), "depth " + depth);
+        }
+    }
+
+    /**
+     * Check the counts of the standard start with a table of subtree counts.
+     */
+    @Test
+    public void standardCountsHashed() {
+        for (int depth = 1; depth < STANDARD_COUNTS.length; depth++) {
+            assertEquals(STANDARD_COUNTS[depth], new Perft(HASH_SIZE).count(standardGame(), depth), "depth " + depth);
+        }
+    }
+
+    /**
+     * Check the counts of the standard start split over threads sharing one table.
+     */
+    @Test
+    public void standardCountsParallel() {
+        for (int depth = 1; depth < STANDARD_COUNTS.length; depth++) {
+            assertEquals(STANDARD_COUNTS[depth], Perft.countParallel(standardGame(), depth, THREADS, HASH_SIZE),
+                    "depth " + depth);
+        }
+    }
+
+    /**
+     * Check the counts of random positions on other board sizes against a plain ArrayBoard count,
+     * without Game or its move generators.
+     */
+    @Test
+    public void randomPositionsMatchReference() {
+        Random random = new Random(SEED);
+        for (int size : new int[] {4, 6, 8, 10, 12}) {
+            for (int position = 0; position < 4; position++) {
+                Game game = Perft.randomPosition(size, random);
+                game.setScoreChecking(true);
+                Board reference = new ArrayBoard(size, size);
+                for (int j = 0; j < size; j++) {
+                    for (int i = 0; i < size; i++) {
+                        reference.setMark(i, j, game.getMark(i, j));
+                    }
+                }
+                int depth = size <= 6 ? 6 : 4;
+                Board.Mark mark = game.getPlayerMark(game.getCurrentTurn());
+                long expected = game.isGameOver() ? 1 : Perft.referenceCount(reference, mark, depth);
+                String description = size + "x" + size + " " + game.getBoard() + " " + mark;
+                assertEquals(expected, new Perft(0).count(game, depth), description);
+                assertEquals(expected, new Perft(HASH_SIZE).count(game, depth), description + ", hashed");
+            }
+        }
+    }
+
+    /**
+     * Check the counts of random positions played on ArrayBoard games, whose moves are tracked
+     * incrementally above 8x8, against the same positions on the default boards.
+     */
+    @Test
+    public void trackedMovesMatchDefaultBoards() {
+        Random random = new Random(SEED);
+        for (int size : new int[] {8, 10, 20}) {
+            for (int position = 0; position < 4; position++) {
+                Game game = Perft.randomPosition(size, random);
+                Board board = new ArrayBoard(size, size);
+                for (int j = 0; j < size; j++) {
+                    for (int i = 0; i < size; i++) {
+                        board.setMark(i, j, game.getMark(i, j));
+                    }
+                }
+                Game tracked = new Game();
+                tracked.initialize(board, game.getCurrentTurn());
+                tracked.start();
+                tracked.setScoreChecking(true);
+                int depth = size <= 10 ? 4 : 3;
+                assertEquals(new Perft(0).count(game, depth), new Perft(0).count(tracked, depth),
+                        size + "x" + size + " " + game.getBoard());
+            }
+        }
+    }
+
+    /**
+     * Check the first counts of a board too wide for a bitset, which Board.create makes an
+     * ArrayBoard, against the reference count.
+     */
+    @Test
+    public void wideBoardMatchesReference() {
+        int size = BitSetBoard.MAX_WIDTH + 1;
+        Game game = new Game();
+        game.initialize(size, size, Game.Player.PLAYER1);
+        game.start();
+        game.setScoreChecking(true);
+        Board reference = new ArrayBoard(size, size);
+        for (int j = 0; j < size; j++) {
+            for (int i = 0; i < size; i++) {
+                reference.setMark(i, j, game.getMark(i, j));
+            }
+        }
+        Board.Mark mark = game.getPlayerMark(game.getCurrentTurn());
+        for (int depth = 1; depth <= 4; depth++) {
+            assertEquals(Perft.referenceCount(reference, mark, depth), new Perft(0).count(game, depth), "depth " + depth);
+        }
+    }
+}
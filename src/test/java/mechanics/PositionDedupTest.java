@@ -0,0 +1,83 @@
+package mechanics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PositionDedupTest {
+
+    private static final long SEED = 20171218L;
+    private static final int SIZE = 8;
+
+    /**
+     * Returns a symmetry other than the identity that leaves the starting position as it is, so
+     * it turns every game into another legal game.
+     * @return a Symmetry of an 8x8 board
+     */
+    private static int startSymmetry() {
+        Board start = Board.create(SIZE, SIZE);
+        for (int symmetry = 1; symmetry < Symmetry.count(SIZE, SIZE); symmetry++) {
+            if (start.transform(symmetry).toString().equals(start.toString())) {
+                return symmetry;
+            }
+        }
+        throw new IllegalStateException("The starting position has no symmetry");
+    }
+
+    /**
+     * Check that a game and its symmetric image give every position once, counted twice.
+     * @param directory a temporary directory
+     * @throws IOException if the files can't be written or read
+     */
+    @Test
+    public void symmetricGamesShareTheirPositions(@TempDir Path directory) throws IOException {
+        Game game = new Game();
+        game.initialize(SIZE, SIZE, Game.Player.PLAYER1);
+        game.start();
+        Random random = new Random(SEED);
+        int[] moves = new int[SIZE * SIZE];
+        while (!game.isGameOver()) {
+            game.makeMove(moves[random.nextInt(game.getLegalMoves(moves))]);
+        }
+        GameRecord record = GameRecord.of(game);
+        int symmetry = startSymmetry();
+        GameRecord image = new GameRecord();
+        image.reset(SIZE, SIZE, record.getStartingPlayer());
+        for (int k = 0; k < record.getLength(); k++) {
+            int move = record.getMove(k);
+            if (move == GameRecord.PASS) {
+                image.addPass();
+            } else {
+                int block = Symmetry.transform(symmetry, move, SIZE, SIZE);
+                image.addMove(block % SIZE, block / SIZE);
+            }
+        }
+        assertTrue(image.replay(new Game()), "the image isn't a legal game");
+
+        Path records = directory.resolve("games.rec");
+        try (GameRecordWriter writer = new GameRecordWriter(records, false)) {
+            writer.write(record);
+            writer.write(image);
+        }
+        Path output = directory.resolve("positions.txt");
+        PositionDedup dedup = new PositionDedup(Integer.MAX_VALUE, 1);
+        long unique = dedup.run(Collections.singletonList(records), output);
+
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertEquals(unique, lines.size());
+        assertEquals(2 * unique, dedup.getPositions());
+        for (String line : lines) {
+            assertTrue(line.endsWith(" 2"), line);
+        }
+    }
+}
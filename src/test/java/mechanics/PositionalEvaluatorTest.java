@@ -0,0 +1,41 @@
+package mechanics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PositionalEvaluatorTest {
+
+    private static final long SEED = 20171218L;
+
+    /**
+     * Check that one evaluator scores a position the same on a bitset board and on an ArrayBoard
+     * of the same size, whose squares are laid out with different strides, in either order.
+     */
+    @Test
+    public void boardLayoutsScoreAlike() {
+        Random random = new Random(SEED);
+        PositionalEvaluator evaluator = new PositionalEvaluator();
+        for (int size : new int[] {6, 8, 10}) {
+            for (int position = 0; position < 4; position++) {
+                Game game = Perft.randomPosition(size, random);
+                Board board = new ArrayBoard(size, size);
+                for (int j = 0; j < size; j++) {
+                    for (int i = 0; i < size; i++) {
+                        board.setMark(i, j, game.getMark(i, j));
+                    }
+                }
+                Game array = new Game();
+                array.initialize(board, game.getCurrentTurn());
+                array.start();
+                String description = size + "x" + size + " " + game.getBoard();
+                int expected = new PositionalEvaluator().evaluate(game);
+                assertEquals(expected, evaluator.evaluate(game), description);
+                assertEquals(expected, evaluator.evaluate(array), description + ", ArrayBoard");
+                assertEquals(expected, evaluator.evaluate(game), description + ", after the ArrayBoard");
+            }
+        }
+    }
+}